@@ -44,6 +44,7 @@ public class voiceType extends JFrame implements Runnable{
     private JButton record; // button for start and stop recording
     private micInput mic = new micInput();
     private Thread checking; // thread checking if there is new word to be recognized
+    private short recordedSample[] = new short[0]; // buffer for the word being recognized, reused for every word
     // end ocvolume
     
     /**
@@ -353,19 +354,25 @@ public class voiceType extends JFrame implements Runnable{
         while(true){
             mic.removeOldWord();
             
-            while(!mic.byteArrayComplete()){
-                try{
-                    checking.sleep(200);
-                }
-                catch(Exception e){
-                    e.printStackTrace();
+            try{
+                //the recording ended and all its words were taken
+                if (!mic.waitForWord()){
+                    return;
                 }
             }
+            catch(InterruptedException e){
+                return;
+            }
             
-            mic.newWord();
-            short recordedSample[] = mic.returnShortArray();
+            //the word is copied into the same buffer every time
+            objSound word = mic.currentWord();
+            int length = word.getSoundSize();
+            if (recordedSample.length < length){
+                recordedSample = new short[length];
+            }
+            word.copyTo(recordedSample, 0);
             
-            String recognizedWord = engine.getWord(recordedSample);
+            String recognizedWord = engine.getWord(recordedSample, length, mic.getNoiseFloor());
             
 		txt.append(recognizedWord + " ");
         }
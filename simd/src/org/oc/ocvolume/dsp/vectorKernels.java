@@ -0,0 +1,165 @@
+/*
+OC Volume - Java Speech Recognition Engine
+Copyright (c) 2002-2004, OrangeCow organization
+All rights reserved.
+
+Redistribution and use in source and binary forms,
+with or without modification, are permitted provided
+that the following conditions are met:
+
+* Redistributions of source code must retain the
+  above copyright notice, this list of conditions
+  and the following disclaimer.
+* Redistributions in binary form must reproduce the
+  above copyright notice, this list of conditions
+  and the following disclaimer in the documentation
+  and/or other materials provided with the
+  distribution.
+* Neither the name of the OrangeCow organization
+  nor the names of its contributors may be used to
+  endorse or promote products derived from this
+  software without specific prior written
+  permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS
+AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF
+THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+POSSIBILITY OF SUCH DAMAGE.
+
+Contact information:
+Please visit http://ocvolume.sourceforge.net.
+*/
+
+package org.oc.ocvolume.dsp;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * <b>description:</b> SIMD feature extraction kernels using the Vector API (jdk.incubator.vector).
+ * This file is kept out of src, in the optional simd/src source root, because it needs
+ * <code>--add-modules jdk.incubator.vector</code> to compile and to run; dspKernels only loads it when the class
+ * and the module are present. The dot product sums in a different order than the scalar loop, so results
+ * differ by rounding only.<br>
+ * <b>calls:</b> none<br>
+ * <b>called by:</b> dspKernels<br>
+ * <b>input:</b> arrays<br>
+ * <b>output:</b> arrays
+ * @author Danny Su
+ */
+public class vectorKernels extends dspKernels{
+    /**
+     * preferred double vector species of the platform
+     */
+    private final static VectorSpecies<Double> D = DoubleVector.SPECIES_PREFERRED;
+    /**
+     * short species holding at least as many lanes as D, shorts are converted to doubles part by part
+     */
+    private final static VectorSpecies<Short> S = VectorSpecies.of(short.class, VectorShape.forBitSize(Math.max(4, D.length()) * 16));
+    /**
+     * number of double vectors in one short vector
+     */
+    private final static int PARTS = S.length() / D.length();
+
+    public String getName(){
+        return "vector (" + D.length() + " doubles)";
+    }
+
+    public void preEmphasisWindow(short signal[], int start, double alpha, double window[], double out[], int from, int to){
+        int n = from;
+        int bound = from + (to - from) / S.length() * S.length();
+        for (; n < bound; n += S.length()){
+            ShortVector cur = ShortVector.fromArray(S, signal, start + n);
+            ShortVector prev = ShortVector.fromArray(S, signal, start + n - 1);
+            for (int p = 0; p < PARTS; p++){
+                int k = n + p * D.length();
+                DoubleVector x = (DoubleVector)cur.convertShape(VectorOperators.S2D, D, p);
+                DoubleVector y = (DoubleVector)prev.convertShape(VectorOperators.S2D, D, p);
+                x.sub(y.mul(alpha)).mul(DoubleVector.fromArray(D, window, k)).intoArray(out, k);
+            }
+        }
+        for (; n < to; n++){
+            int i = start + n;
+            out[n] = (signal[i] - alpha * signal[i - 1]) * window[n];
+        }
+    }
+
+    public void multiply(double a[], double b[], double out[], int length){
+        int n = 0;
+        int bound = D.loopBound(length);
+        for (; n < bound; n += D.length()){
+            DoubleVector.fromArray(D, a, n).mul(DoubleVector.fromArray(D, b, n)).intoArray(out, n);
+        }
+        for (; n < length; n++){
+            out[n] = a[n] * b[n];
+        }
+    }
+
+    public void magnitude(double re[], double im[], double out[], int length){
+        int k = 0;
+        int bound = D.loopBound(length);
+        for (; k < bound; k += D.length()){
+            DoubleVector r = DoubleVector.fromArray(D, re, k);
+            DoubleVector i = DoubleVector.fromArray(D, im, k);
+            r.mul(r).add(i.mul(i)).sqrt().intoArray(out, k);
+        }
+        for (; k < length; k++){
+            out[k] = Math.sqrt(re[k] * re[k] + im[k] * im[k]);
+        }
+    }
+
+    public double dot(double a[], int aOffset, double b[], int bOffset, int length){
+        int i = 0;
+        int bound = D.loopBound(length);
+        DoubleVector acc = DoubleVector.zero(D);
+        for (; i < bound; i += D.length()){
+            acc = DoubleVector.fromArray(D, a, aOffset + i).fma(DoubleVector.fromArray(D, b, bOffset + i), acc);
+        }
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++){
+            sum += a[aOffset + i] * b[bOffset + i];
+        }
+        return sum;
+    }
+
+    public void butterfly(double re[], double im[], int top, int bottom, int lanes, double ur, double ui){
+        int l = 0;
+        int bound = D.loopBound(lanes);
+        for (; l < bound; l += D.length()){
+            DoubleVector br = DoubleVector.fromArray(D, re, bottom + l);
+            DoubleVector bi = DoubleVector.fromArray(D, im, bottom + l);
+            DoubleVector tr = DoubleVector.fromArray(D, re, top + l);
+            DoubleVector ti = DoubleVector.fromArray(D, im, top + l);
+            // same operations as the scalar loop, no fma, so the results are identical
+            DoubleVector tempReal = br.mul(ur).sub(bi.mul(ui));
+            DoubleVector tempImag = br.mul(ui).add(bi.mul(ur));
+            tr.sub(tempReal).intoArray(re, bottom + l);
+            ti.sub(tempImag).intoArray(im, bottom + l);
+            tr.add(tempReal).intoArray(re, top + l);
+            ti.add(tempImag).intoArray(im, top + l);
+        }
+        for (; l < lanes; l++){
+            double tempReal = re[bottom + l] * ur - im[bottom + l] * ui;
+            double tempImag = re[bottom + l] * ui + im[bottom + l] * ur;
+            re[bottom + l] = re[top + l] - tempReal;
+            im[bottom + l] = im[top + l] - tempImag;
+            re[top + l] += tempReal;
+            im[top + l] += tempImag;
+        }
+    }
+}
\ No newline at end of file
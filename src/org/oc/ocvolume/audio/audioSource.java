@@ -0,0 +1,96 @@
+/*
+OC Volume - Java Speech Recognition Engine
+Copyright (c) 2002-2004, OrangeCow organization
+All rights reserved.
+
+Redistribution and use in source and binary forms,
+with or without modification, are permitted provided
+that the following conditions are met:
+
+* Redistributions of source code must retain the
+  above copyright notice, this list of conditions
+  and the following disclaimer.
+* Redistributions in binary form must reproduce the
+  above copyright notice, this list of conditions
+  and the following disclaimer in the documentation
+  and/or other materials provided with the
+  distribution.
+* Neither the name of the OrangeCow organization
+  nor the names of its contributors may be used to
+  endorse or promote products derived from this
+  software without specific prior written
+  permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS
+AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF
+THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+POSSIBILITY OF SUCH DAMAGE.
+
+Contact information:
+Please visit http://ocvolume.sourceforge.net.
+*/
+
+package org.oc.ocvolume.audio;
+
+import java.io.IOException;
+
+/**
+ * <b>description:</b> where micInput gets its signal from: a microphone, a wave file, a raw PCM stream or a signal
+ * in memory. The signal is 16 bits mono at getSampleRate().<br>
+ * <b>calls:</b> none<br>
+ * <b>called by:</b> micInput<br>
+ * <b>input:</b> audio<br>
+ * <b>output:</b> speech signal
+ * @author Keith Fung
+ */
+public interface audioSource{
+    /**
+     * returns the sample rate of the signal<br>
+     * calls: none<br>
+     * called by: micInput
+     * @return samples per second
+     */
+    public float getSampleRate();
+    /**
+     * starts the source<br>
+     * calls: none<br>
+     * called by: micInput
+     * @throws Exception if the source cannot be opened
+     */
+    public void open() throws Exception;
+    /**
+     * reads the next samples, waits until length samples are read unless the signal ends<br>
+     * calls: none<br>
+     * called by: micInput
+     * @param buffer receives the samples
+     * @param offset position of the first sample in buffer
+     * @param length number of samples
+     * @return number of samples read, or -1 at the end of the signal
+     * @throws IOException if the source cannot be read
+     */
+    public int read(short buffer[], int offset, int length) throws IOException;
+    /**
+     * stops the source, read only returns the samples already captured and then -1<br>
+     * calls: none<br>
+     * called by: micInput
+     */
+    public void stop();
+    /**
+     * closes the source<br>
+     * calls: none<br>
+     * called by: micInput
+     */
+    public void close();
+}
\ No newline at end of file
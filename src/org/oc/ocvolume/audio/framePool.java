@@ -0,0 +1,170 @@
+/*
+OC Volume - Java Speech Recognition Engine
+Copyright (c) 2002-2004, OrangeCow organization
+All rights reserved.
+
+Redistribution and use in source and binary forms,
+with or without modification, are permitted provided
+that the following conditions are met:
+
+* Redistributions of source code must retain the
+  above copyright notice, this list of conditions
+  and the following disclaimer.
+* Redistributions in binary form must reproduce the
+  above copyright notice, this list of conditions
+  and the following disclaimer in the documentation
+  and/or other materials provided with the
+  distribution.
+* Neither the name of the OrangeCow organization
+  nor the names of its contributors may be used to
+  endorse or promote products derived from this
+  software without specific prior written
+  permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS
+AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF
+THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+POSSIBILITY OF SUCH DAMAGE.
+
+Contact information:
+Please visit http://ocvolume.sourceforge.net.
+*/
+
+package org.oc.ocvolume.audio;
+
+/**
+ * <b>description:</b> reusable 100ms frames for the recording thread of micInput. A frame is taken with acquire,
+ * and goes back to the pool when its last holder releases it. Frames released by the recording thread are kept in
+ * a stack only it uses, frames released by the recognizer thread (when it removes a word) come back through a
+ * ringBuffer, so no lock is needed. New frames are only created until enough of them are in use, after that
+ * recording does not allocate.<br>
+ * <b>calls:</b> ringBuffer<br>
+ * <b>called by:</b> micInput, objFrame<br>
+ * <b>input:</b> speech signal<br>
+ * <b>output:</b> 100ms frames
+ * @author Keith Fung
+ */
+public class framePool{
+    /**
+     * number of samples in a frame
+     */
+    private final int frameSamples;
+    /**
+     * free frames, only used by the owner thread
+     */
+    private objFrame free[] = new objFrame[16];
+    /**
+     * number of frames in free
+     */
+    private int numFree = 0;
+    /**
+     * frames released by other threads
+     */
+    private final ringBuffer returned;
+    /**
+     * thread that acquires the frames
+     */
+    private volatile Thread owner;
+    /**
+     * number of frames created
+     */
+    private int allocated = 0;
+    /**
+     * constructor<br>
+     * calls: ringBuffer<br>
+     * called by: micInput
+     * @param frameSamples number of samples in a frame
+     * @param maxReturned number of frames other threads can give back before the owner takes them, more are left
+     * to the garbage collector
+     */
+    public framePool(int frameSamples, int maxReturned){
+        this.frameSamples = frameSamples;
+        returned = new ringBuffer(maxReturned);
+    }
+    /**
+     * sets the thread that acquires the frames<br>
+     * calls: none<br>
+     * called by: micInput
+     * @param owner the recording thread
+     */
+    public void setOwner(Thread owner){
+        this.owner = owner;
+    }
+    /**
+     * returns a frame filled with the given samples, held once by the caller, owner thread only<br>
+     * calls: objFrame<br>
+     * called by: micInput
+     * @param bufferRead speech signal, at least frameSamples long
+     * @return the frame
+     */
+    public objFrame acquire(short bufferRead[]){
+        if (numFree == 0){
+            Object o;
+            while ((o = returned.poll()) != null){
+                push((objFrame)o);
+            }
+        }
+
+        objFrame frame;
+        if (numFree > 0){
+            frame = free[--numFree];
+            free[numFree] = null;
+        }
+        else{
+            frame = new objFrame(frameSamples, this);
+            allocated++;
+        }
+        frame.set(bufferRead);
+        frame.retain();
+        return frame;
+    }
+    /**
+     * returns the number of frames created<br>
+     * calls: none<br>
+     * called by: volume
+     * @return number of frames
+     */
+    public int getAllocated(){
+        return allocated;
+    }
+    /**
+     * takes back a frame nobody holds<br>
+     * calls: ringBuffer<br>
+     * called by: objFrame
+     * @param frame the frame
+     */
+    void recycle(objFrame frame){
+        if (Thread.currentThread() == owner){
+            push(frame);
+        }
+        else{
+            // a full buffer leaves the frame to the garbage collector
+            returned.offer(frame);
+        }
+    }
+    /**
+     * adds a frame to the free stack<br>
+     * calls: none<br>
+     * called by: acquire, recycle
+     */
+    private void push(objFrame frame){
+        if (numFree == free.length){
+            objFrame grown[] = new objFrame[2 * free.length];
+            System.arraycopy(free, 0, grown, 0, numFree);
+            free = grown;
+        }
+        free[numFree++] = frame;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,118 @@
+/*
+OC Volume - Java Speech Recognition Engine
+Copyright (c) 2002-2004, OrangeCow organization
+All rights reserved.
+
+Redistribution and use in source and binary forms,
+with or without modification, are permitted provided
+that the following conditions are met:
+
+* Redistributions of source code must retain the
+  above copyright notice, this list of conditions
+  and the following disclaimer.
+* Redistributions in binary form must reproduce the
+  above copyright notice, this list of conditions
+  and the following disclaimer in the documentation
+  and/or other materials provided with the
+  distribution.
+* Neither the name of the OrangeCow organization
+  nor the names of its contributors may be used to
+  endorse or promote products derived from this
+  software without specific prior written
+  permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS
+AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF
+THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+POSSIBILITY OF SUCH DAMAGE.
+
+Contact information:
+Please visit http://ocvolume.sourceforge.net.
+*/
+
+package org.oc.ocvolume.audio;
+
+/**
+ * <b>description:</b> plays a signal held in memory, once or several times, e.g. to test the word detection
+ * without a microphone<br>
+ * <b>calls:</b> none<br>
+ * <b>called by:</b> micInput<br>
+ * <b>input:</b> speech signal<br>
+ * <b>output:</b> speech signal
+ * @author Keith Fung
+ */
+public class generatorSource extends pacedSource{
+    /**
+     * the signal
+     */
+    private final short samples[];
+    /**
+     * number of times the signal is played, 0 for no end
+     */
+    private final int repeat;
+    /**
+     * position in the signal
+     */
+    private int position = 0;
+    /**
+     * number of times the signal was played
+     */
+    private int played = 0;
+    /**
+     * constructor to play a signal once<br>
+     * calls: none<br>
+     * called by: volume
+     * @param samples the signal
+     * @param sampleRate samples per second
+     */
+    public generatorSource(short samples[], float sampleRate){
+        this(samples, sampleRate, 1);
+    }
+    /**
+     * constructor<br>
+     * calls: none<br>
+     * called by: volume
+     * @param samples the signal
+     * @param sampleRate samples per second
+     * @param repeat number of times the signal is played, 0 for no end
+     */
+    public generatorSource(short samples[], float sampleRate, int repeat){
+        super(sampleRate);
+        this.samples = samples;
+        this.repeat = repeat;
+    }
+
+    protected void openSource(){
+        position = 0;
+        played = 0;
+    }
+
+    protected int fill(short buffer[], int offset, int length){
+        if (samples.length == 0 || (repeat > 0 && played >= repeat)){
+            return -1;
+        }
+        int count = Math.min(length, samples.length - position);
+        System.arraycopy(samples, position, buffer, offset, count);
+        position += count;
+        if (position == samples.length){
+            position = 0;
+            played++;
+        }
+        return count;
+    }
+
+    public void close(){
+    }
+}
\ No newline at end of file
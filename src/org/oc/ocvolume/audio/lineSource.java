@@ -0,0 +1,133 @@
+/*
+OC Volume - Java Speech Recognition Engine
+Copyright (c) 2002-2004, OrangeCow organization
+All rights reserved.
+
+Redistribution and use in source and binary forms,
+with or without modification, are permitted provided
+that the following conditions are met:
+
+* Redistributions of source code must retain the
+  above copyright notice, this list of conditions
+  and the following disclaimer.
+* Redistributions in binary form must reproduce the
+  above copyright notice, this list of conditions
+  and the following disclaimer in the documentation
+  and/or other materials provided with the
+  distribution.
+* Neither the name of the OrangeCow organization
+  nor the names of its contributors may be used to
+  endorse or promote products derived from this
+  software without specific prior written
+  permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS
+AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF
+THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+POSSIBILITY OF SUCH DAMAGE.
+
+Contact information:
+Please visit http://ocvolume.sourceforge.net.
+*/
+
+package org.oc.ocvolume.audio;
+
+import javax.sound.sampled.*;
+import java.io.IOException;
+
+/**
+ * <b>description:</b> records from the microphone through a TargetDataLine, 16 bits mono little-endian<br>
+ * <b>calls:</b> none<br>
+ * <b>called by:</b> micInput<br>
+ * <b>input:</b> digitalize speech signal<br>
+ * <b>output:</b> speech signal
+ * @author Keith Fung
+ */
+public class lineSource implements audioSource{
+    /**
+     * audio format
+     */
+    private final AudioFormat format;
+    /**
+     * microphone source
+     */
+    private final DataLine.Info info;
+    /**
+     * microphone
+     */
+    private TargetDataLine SampleLine;
+    /**
+     * bytes read from the line
+     */
+    private byte byteBufferRead[] = new byte[0];
+    /**
+     * true after stop
+     */
+    private volatile boolean stopped = false;
+    /**
+     * constructor<br>
+     * calls: none<br>
+     * called by: micInput
+     * @param sampleRate samples per second
+     */
+    public lineSource(float sampleRate){
+        format = new AudioFormat(micInput.SAMPLE_ENCODING, sampleRate, micInput.SAMPLE_BITS, micInput.SAMPLE_CHANNELS, micInput.SAMPLE_FRAME_SIZE, sampleRate, micInput.SAMPLE_BIG_ENDIAN);
+        info = new DataLine.Info(TargetDataLine.class, format);
+    }
+
+    public float getSampleRate(){
+        return format.getSampleRate();
+    }
+
+    public void open() throws Exception{
+        if (!AudioSystem.isLineSupported(info)){    //check if the line format is supported by the system
+            throw new LineUnavailableException("Line not Supported");
+        }
+        SampleLine = (TargetDataLine) AudioSystem.getLine(info);  //Obtain the line
+        SampleLine.open(format);  //open the line
+        SampleLine.start(); // Begin audio capture.
+        stopped = false;
+    }
+
+    public int read(short buffer[], int offset, int length) throws IOException{
+        int bytes = length * 2;
+        if (stopped){
+            //only what the line still holds
+            bytes = Math.min(bytes, SampleLine.available() & ~1);
+            if (bytes == 0){
+                return -1;
+            }
+        }
+        if (byteBufferRead.length < bytes){
+            byteBufferRead = new byte[bytes];
+        }
+        int numByteRead = SampleLine.read(byteBufferRead, 0, bytes);  // Read the next chunk of data from the TargetDataLine.
+
+        //converting small-endian to short (16bits number)
+        for (int c = 0; c < numByteRead / 2; c++){
+            buffer[offset + c] = (short)((byteBufferRead[2 * c + 1]<< 8) + (byteBufferRead[2 * c]>=0?byteBufferRead[2 * c]:byteBufferRead[2 * c] + 256));
+        }
+        return numByteRead / 2;
+    }
+
+    public void stop(){
+        stopped = true;
+        SampleLine.stop();    //stop the TargetDataLine
+    }
+
+    public void close(){
+        SampleLine.close(); //close the TargetDataLine
+    }
+}
\ No newline at end of file
@@ -46,28 +46,38 @@ package org.oc.ocvolume.audio;
 
 import javax.sound.sampled.*;
 import java.io.*;
-import java.util.*;
+import java.util.NoSuchElementException;
+import org.oc.ocvolume.dsp.noiseFloor;
 
 /**
  * <b>description:</b> continuous record voice from microphone, with at least 600ms pause in between words
  * or discrete recording with at least 100ms in the front and end being silent
  * default is continuous recording<br>
- * <b>calls:</b> none<br>
+ * the signal comes from an audioSource, the microphone by default. With a wave file, a raw PCM stream or a signal
+ * in memory the words are found the same way, as fast as the source can be read. The recording ends when the
+ * source ends<br>
+ * in continuous recording the noise is measured during the first 300ms, then followed by a noiseFloor so the
+ * word trigger keeps working when the room noise changes<br>
+ * the recorded words are handed to the recognizer through a ringBuffer, waitForWord returns as soon as a word is
+ * complete<br>
+ * the 100ms frames come from a framePool and a word only references its frames, so once the frames and words
+ * are reused the recording does not allocate. currentWord gives the word without copying it<br>
+ * <b>calls:</b> audioSource, framePool, noiseFloor, ringBuffer<br>
  * <b>called by:</b> volume<br>
  * <b>input:</b> digitalize speech signal<br>
  * <b>output:</b> speech signal stored in array
  */
 public class micInput extends Thread{
     /**
-     * microphone source
+     * signal source
      */
-    private TargetDataLine SampleLine;
+    private audioSource source;
     /**
      * encoding method "pulse-code modulation"  predefined encoding
      */
     protected final static AudioFormat.Encoding SAMPLE_ENCODING = AudioFormat.Encoding.PCM_SIGNED;
     /**
-     * capture amound of sample per second, can be changed in the constructor 16 kHz
+     * default capture amound of sample per second 16 kHz, can be changed in the constructor
      */
     protected final static float SAMPLE_RATE = 16000.0F;
     /**
@@ -97,10 +107,14 @@ public class micInput extends Thread{
      * buffersize 2 seconds
      */
     protected final static int SAMPLE_BUFFER_SIZE = (int)SAMPLE_RATE * 2;
+    /**
+     * capture amound of sample per second
+     */
+    protected final float sampleRate;
     /**
      * audio format
      */
-    protected final static AudioFormat format = new AudioFormat(SAMPLE_ENCODING, SAMPLE_RATE,SAMPLE_BITS,SAMPLE_CHANNELS,SAMPLE_FRAME_SIZE,SAMPLE_FRAME_RATE,SAMPLE_BIG_ENDIAN);
+    protected final AudioFormat format;
     /**
      * indicates recording status
      */
@@ -110,13 +124,9 @@ public class micInput extends Thread{
      */
     private short sampleShortData[];
     /**
-     * microphone source
-     */
-    private DataLine.Info info = new DataLine.Info(TargetDataLine.class, format); // format is an AudioFormat object
-    /**
-     * buffersize in byte. 100ms
+     * number of samples in 100ms
      */
-    private final int BUFFER_SIZE = 3200;
+    private final int FRAME_SAMPLES;
     /**
      * a multiplier to determine the energy threshold
      */
@@ -126,21 +136,26 @@ public class micInput extends Thread{
      */
     private double avgEnergyThreshold = 0;
     /**
-     * used to measure the envirnoment noise
+     * number of 100ms frames used to measure the envirnoment noise
      */
-    private  double avgNoiseEnergy = 0;
+    private final static int NOISE_FRAMES = 3;
     /**
-     * read samples from targetdataline(mic)
+     * number of 100ms frames (3.2s) of the minimum statistics window of the noise level, longer than a word, a
+     * multiple of the 8 parts of the window
      */
-    private  byte byteBufferRead[] = new byte[BUFFER_SIZE];
+    private final static int NOISE_WINDOW = 32;
     /**
-     *
+     * smoothing of the noise level for each 100ms frame, about 1s
      */
-    private  int numByteRead = 0;
+    private final static double NOISE_SMOOTHING = 0.9;
     /**
-     * store the converted byte to short
+     * used to measure the envirnoment noise
      */
-    private  short bufferRead[] = new short[BUFFER_SIZE / 2];
+    private noiseFloor noise = new noiseFloor(NOISE_FRAMES, NOISE_WINDOW, NOISE_SMOOTHING);
+    /**
+     * store the samples read from the source
+     */
+    private  short bufferRead[];
     /**
      *
      */
@@ -168,180 +183,262 @@ public class micInput extends Thread{
     private int silentCount = 0;    //counter for next 300ms silent after sound
     
     /**
-     * sample buffer
+     * maximum number of 100ms frames of a word (30s), a longer word is cut
      */
-    private Vector vBufferRead = new Vector(5,5);
+    private final static int MAX_WORD_FRAMES = 300;
     /**
-     *
+     * maximum number of words waiting for the recognizer
+     */
+    private final static int MAX_WORDS = 64;
+    /**
+     * sample buffer, only used by the recording thread
      */
-    private int tempVBufferReadSize = 0;
+    private ringBuffer vBufferRead = new ringBuffer(MAX_WORD_FRAMES);
     /**
-     * word buffer
+     * word buffer, filled by the recording thread and emptied by the recognizer
      */
-    protected Vector vBufferWord = new Vector(1,1);
+    protected ringBuffer vBufferWord = new ringBuffer(MAX_WORDS);
     /**
-     * discrete recording: collects data from targetdataline
+     * reusable 100ms frames
      */
-    private ByteArrayOutputStream sampleOutputStream;
+    private framePool pool;
+    /**
+     * words removed by the recognizer, ready to be reused by the recording thread
+     */
+    private ringBuffer freeWords = new ringBuffer(MAX_WORDS);
+    /**
+     * word kept by the recording thread when the word buffer was full
+     */
+    private objSound spareWord;
     /**
      * temp array for discrete recording
      */
-    private byte tempByteData[];
     private short tempShortData[];
     /**
      * continuous recording or discrete recording
      */
     private boolean continuousRecording = true;
     /**
-     * Constructor
+     * Constructor to record at 16 kHz
      */
-    public micInput(){}
+    public micInput(){
+        this(SAMPLE_RATE);
+    }
+    /**
+     * Constructor to record at the given sample rate<br>
+     * calls: lineSource<br>
+     * called by: volume
+     * @param sampleRate samples per second, e.g. 8000 for telephony
+     */
+    public micInput(float sampleRate){
+        this(new lineSource(sampleRate));
+    }
+    /**
+     * Constructor to record from any source<br>
+     * calls: none<br>
+     * called by: volume
+     * @param source where the signal comes from, e.g. a waveSource or a streamSource
+     */
+    public micInput(audioSource source){
+        this.source = source;
+        this.sampleRate = source.getSampleRate();
+        format = new AudioFormat(SAMPLE_ENCODING, sampleRate, SAMPLE_BITS, SAMPLE_CHANNELS, SAMPLE_FRAME_SIZE, sampleRate, SAMPLE_BIG_ENDIAN);
+        FRAME_SAMPLES = (int)(sampleRate / 10);
+        bufferRead = new short[FRAME_SAMPLES];
+        //the frames of all the words the recognizer removes at once can come back
+        pool = new framePool(FRAME_SAMPLES, 2 * vBufferRead.capacity());
+    }
     /**
-     * recording from the microphone<br>
+     * return the sample rate used for recording<br>
      * calls: none<br>
+     * called by: volume
+     * @return samples per second
+     */
+    public float getSampleRate(){
+        return sampleRate;
+    }
+    /**
+     * recording from the source<br>
+     * calls: audioSource, framePool<br>
      * called by: volume     
      */
     public void run(){
-        if (AudioSystem.isLineSupported(info)){    //check if the line format is supported by the system
-            try{
-                SampleLine = (TargetDataLine) AudioSystem.getLine(info);  //Obtain the line
+        try{
+            pool.setOwner(Thread.currentThread());
+            source.open();
+            
+            sampleRecording = true;
+            
+            if (continuousRecording){
                 
-                SampleLine.open(format);  //open the line
+                //continuous recording
+                System.out.println("noise measuring");
+                noise.reset();
+                for (int d = 0; d < NOISE_FRAMES && readFrame(); d++){    //use 100ms to determine the avg noise energy
+                    workingFrame = pool.acquire(bufferRead);
+                    vBufferRead.offer(workingFrame);
+                    noise.update(workingFrame.getAvgEnergy(), workingFrame.getCrossingRate());
+                }
+                avgEnergyThreshold = noise.getEnergy() * AVG_ENERGY_CONST;
                 
-                SampleLine.start(); // Begin audio capture.
+                if (avgEnergyThreshold > 1070000000){    //(65536 / 2)^2  = 1073741824
+                    System.out.println("The environment is too noisy.  Please stop and try recording in a less noisy enviroment.");
+                }
                 
-                sampleRecording = true;
+                System.out.println("noise measuring completed");
                 
-                if (continuousRecording){
+                // Here, stopped is a global boolean set by another thread.
+                while (sampleRecording && readFrame()) {
                     
-                    //continuous recording
-                    System.out.println("noise measuring");
-                    avgNoiseEnergy = 0;
-                    for (int d = 0; d < 3; d++){    //use 100ms to determine the avg noise energy
-                        numByteRead =  SampleLine.read(byteBufferRead, 0, BUFFER_SIZE);  // Read the next chunk of data from the TargetDataLine.
-                        
-                        //converting small-endian to short (16bits number)
-                        for (int c = 0; c < numByteRead / 2; c++){
-                            bufferRead[c] = (short)((byteBufferRead[2 * c + 1]<< 8) + (byteBufferRead[2 * c]>=0?byteBufferRead[2 * c]:byteBufferRead[2 * c] + 256));
-                            avgNoiseEnergy += bufferRead[c] * bufferRead[c];
-                        }
-                        workingFrame = new objFrame(bufferRead);
-                        vBufferRead.addElement(workingFrame);
-                    }
-                    avgNoiseEnergy /= (1600 * 3);
-                    avgEnergyThreshold = avgNoiseEnergy * AVG_ENERGY_CONST;
+                    workingFrame = pool.acquire(bufferRead);
                     
-                    if (avgEnergyThreshold > 1070000000){    //(65536 / 2)^2  = 1073741824
-                        System.out.println("The environment is too noisy.  Please stop and try recording in a less noisy enviroment.");
+                    //a word that fills the buffer is handed over as it is
+                    if (vBufferRead.isFull()){
+                        completeWord();
                     }
+                    vBufferRead.offer(workingFrame);
                     
-                    System.out.println("noise measuring completed");
+                    //follow the noise, the frame is compared with the level before it, the level is held during a word so
+                    //that a long word does not become the noise
+                    noise.update(workingFrame.getAvgEnergy(), workingFrame.getCrossingRate(), haveSound);
                     
-                    // Here, stopped is a global boolean set by another thread.
-                    while (sampleRecording) {
-                        
-                        numByteRead =  SampleLine.read(byteBufferRead, 0, BUFFER_SIZE);  // Read the next chunk of data from the TargetDataLine.
-                        
-                        //converting small-endian to short (16bits number)
-                        for (int c = 0; c < numByteRead / 2; c++){
-                            bufferRead[c] = (short)((byteBufferRead[2 * c + 1]<< 8) + (byteBufferRead[2 * c]>=0?byteBufferRead[2 * c]:byteBufferRead[2 * c] + 256));
-                        }
-                        numRead = (int)(numByteRead / 2);
-                        
-                        workingFrame = new objFrame(bufferRead);
-                        vBufferRead.addElement(workingFrame);
-                        
-                        //check if a word is found
-                        if ((workingFrame.getAvgEnergy() > avgEnergyThreshold)){
-                            haveSound = true;
-                            silentCount = 0;
-                        }
-                        else if (haveSound){
-                            //record extra silent/noise at the end of the word
-                            if (silentCount <= 4){
-                                silentCount++;
-                            }
-                            //once the recording complete, then it is transfered to the word buffer ready to be recognized
-                            else{
-                                voicedSample = new objSound(vBufferRead.size() * 1600);
-                                
-                                //copy all the 100ms frames into one unit and store as a word
-                                for (Enumeration e = vBufferRead.elements() ; e.hasMoreElements() ;) {
-                                    ExtractingFrame = (objFrame)e.nextElement();
-                                    voicedSample.addSound(ExtractingFrame.getSample(),(int)(BUFFER_SIZE/2));
-                                }
-                                
-                                
-                                vBufferWord.addElement(voicedSample);
-                                
-                                //remove all data in the vector Read except the last 400ms
-                                tempVBufferReadSize = vBufferRead.size() - 4;
-                                for (int c = 0; c < tempVBufferReadSize; c++){
-                                    vBufferRead.removeElementAt(0);
-                                }
-                                
-                                silentCount = 0;
-                                haveSound = false;
-                            }
+                    //check if a word is found
+                    if ((workingFrame.getAvgEnergy() > avgEnergyThreshold)){
+                        haveSound = true;
+                        silentCount = 0;
+                    }
+                    else if (haveSound){
+                        //record extra silent/noise at the end of the word
+                        if (silentCount <= 4){
+                            silentCount++;
                         }
-                        //limit the buffer to store 500ms of noise when no voice detected
-                        else if (!haveSound && vBufferRead.size() > 5){
-                            vBufferRead.removeElementAt(0);
+                        //once the recording complete, then it is transfered to the word buffer ready to be recognized
+                        else{
+                            completeWord();
                         }
-                        
-                        
                     }
-                    
-                    SampleLine.stop();    //stop the TargetDataLine
-                    SampleLine.close(); //close the TargetDataLine
-                    
-                    
-                }
-                else{
-                    //discrete recording
-                    sampleOutputStream = new ByteArrayOutputStream();
-                    
-                    sampleRecording = true;
-                    
-                    // Here, stopped is a global boolean set by another thread.
-                    while (sampleRecording) {
-                        numByteRead =  SampleLine.read(byteBufferRead, 0, BUFFER_SIZE);  // Read the next chunk of data from the TargetDataLine.
-                        sampleOutputStream.write(byteBufferRead, 0, numByteRead); // Save this chunk of data.
+                    //limit the buffer to store 500ms of noise when no voice detected
+                    else if (!haveSound && vBufferRead.size() > 5){
+                        ((objFrame)vBufferRead.poll()).release();
                     }
-                    
-                    SampleLine.stop();
-                    
-                    numByteRead = SampleLine.read(byteBufferRead, 0, BUFFER_SIZE);//SampleBufferSize);
-                    sampleOutputStream.write(byteBufferRead,0, numByteRead);
-                    SampleLine.stop();
-                    
-                    SampleLine.close(); //close the TargetDataLine
-                    
-                    sampleOutputStream.close();    //close the storing array
-                    
-                    
-                    tempByteData = sampleOutputStream.toByteArray(); //convert the store data into a byte array
-                    
-                    //make the bits into a short integer
-                    tempShortData = new short[tempByteData.length / 2];
-                    for (int c = 0; c < tempShortData.length; c++){
-                        tempShortData[c] = (short)((tempByteData[2 * c + 1]<< 8) + (tempByteData[2 * c]>=0?tempByteData[2 * c]:tempByteData[2 * c] + 256));
-                    }
-                    
-                    voicedSample = new objSound(tempShortData.length);
-                    voicedSample.addSound(tempShortData,tempShortData.length);
-                    vBufferWord.addElement(voicedSample);
-                    
+                    avgEnergyThreshold = noise.getEnergy() * AVG_ENERGY_CONST;
+                }
+                
+                //the source ended in the middle of a word
+                if (haveSound){
+                    completeWord();
                 }
+                
+                source.stop();
+                source.close();
+                
+                
             }
-            catch (Exception e){
-                e.printStackTrace();
+            else{
+                //discrete recording
+                tempShortData = new short[SAMPLE_BUFFER_SIZE];
+                int length = 0;
+                
+                sampleRecording = true;
+                
+                // Here, stopped is a global boolean set by another thread.
+                while (sampleRecording && (numRead = source.read(bufferRead, 0, FRAME_SAMPLES)) != -1) {
+                    tempShortData = append(tempShortData, length, bufferRead, numRead); // Save this chunk of data.
+                    length += numRead;
+                }
+                
+                source.stop();
+                
+                //what the source still holds
+                while ((numRead = source.read(bufferRead, 0, FRAME_SAMPLES)) != -1){
+                    tempShortData = append(tempShortData, length, bufferRead, numRead);
+                    length += numRead;
+                }
+                
+                source.close();
+                
+                voicedSample = new objSound(length);
+                voicedSample.addSound(tempShortData, length);
+                if (!vBufferWord.offer(voicedSample)){
+                    System.out.println("Word buffer full, the word is dropped");
+                }
+                
             }
         }
-        else{
-            System.out.println("Line not Supported");
+        catch (Exception e){
+            e.printStackTrace();
+        }
+        finally{
+            sampleRecording = false;
+            vBufferWord.close();
         }
     }
+    /**
+     * read the next 100ms frame from the source into bufferRead, a short last frame is padded with silence<br>
+     * calls: audioSource<br>
+     * called by: run
+     * @return false at the end of the source
+     */
+    private boolean readFrame() throws IOException{
+        numRead = source.read(bufferRead, 0, FRAME_SAMPLES);
+        if (numRead == -1){
+            return false;
+        }
+        for (int c = numRead; c < FRAME_SAMPLES; c++){
+            bufferRead[c] = 0;
+        }
+        return true;
+    }
+    /**
+     * copy samples to the end of a growing array<br>
+     * calls: none<br>
+     * called by: run
+     * @return the array, or a bigger copy of it
+     */
+    private static short[] append(short array[], int length, short samples[], int count){
+        if (length + count > array.length){
+            short grown[] = new short[Math.max(length + count, 2 * array.length)];
+            System.arraycopy(array, 0, grown, 0, length);
+            array = grown;
+        }
+        System.arraycopy(samples, 0, array, length, count);
+        return array;
+    }
+    /**
+     * combine all the 100ms frames into one unit and store it as a word in the word buffer, the word references
+     * the frames instead of copying them<br>
+     * calls: objSound, ringBuffer<br>
+     * called by: run
+     */
+    private void completeWord(){
+        voicedSample = spareWord;
+        spareWord = null;
+        if (voicedSample == null){
+            voicedSample = (objSound)freeWords.poll();
+        }
+        if (voicedSample == null){
+            voicedSample = new objSound(vBufferRead.capacity(), FRAME_SAMPLES);
+        }
+        
+        for (int c = 0; c < vBufferRead.size(); c++){
+            ExtractingFrame = (objFrame)vBufferRead.get(c);
+            voicedSample.addFrame(ExtractingFrame);
+        }
+        
+        if (!vBufferWord.offer(voicedSample)){
+            System.out.println("Word buffer full, the word is dropped");
+            voicedSample.clearFrames();
+            spareWord = voicedSample;
+        }
+        
+        //remove all data in the buffer except the last 400ms
+        while (vBufferRead.size() > 4){
+            ((objFrame)vBufferRead.poll()).release();
+        }
+        
+        silentCount = 0;
+        haveSound = false;
+    }
     /**
      * Stop the mic input<br>
      * calls: none<br>
@@ -351,6 +448,18 @@ public class micInput extends Thread{
         sampleRecording = false;
     }
     
+    /**
+     * return the background noise level measured in continuous recording, it can be given to endPt.absCut or
+     * ocvolume.getWord<br>
+     * the recording thread keeps updating the level, so a copy of it at the time of the call is returned<br>
+     * calls: noiseFloor<br>
+     * called by: volume
+     * @return noise level, not ready before the noise measuring is completed
+     */
+    public noiseFloor getNoiseFloor(){
+        return noise.copy();
+    }
+    
     /**
      * return how many words are in the buffer<br>
      * calls: none<br>
@@ -367,38 +476,58 @@ public class micInput extends Thread{
      * @return true or false indicating whether a word is in the buffer
      */
     public boolean byteArrayComplete(){
-        if(vBufferWord.size() > 0){
-            return true;
-        }
-        else{
-            return false;
-        }
+        return !vBufferWord.isEmpty();
+    }
+    
+    /**
+     * wait until a word is stored in the buffer, without polling<br>
+     * calls: ringBuffer<br>
+     * called by: volume
+     * @return true if a word is in the buffer, false if the recording ended and all words were removed
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public boolean waitForWord() throws InterruptedException{
+        return vBufferWord.await();
     }
     
     /**
      * read the next element in the word buffer<br>
-     * calls: none<br>
+     * calls: objSound<br>
      * called by: volume     
+     * @throws NoSuchElementException if the word buffer is empty, e.g. after waitForWord returned false
      */
     public void newWord(){
-        tempSampleShortData = (objSound)vBufferWord.firstElement();
+        tempSampleShortData = (objSound)vBufferWord.peek();
+        if (tempSampleShortData == null){
+            throw new NoSuchElementException("the word buffer is empty");
+        }
         sampleShortData = new short[tempSampleShortData.getSoundSize()];
         //get the first element in the word buffer and save it as an normal short array
-        for (int c = 0; c < tempSampleShortData.getSoundSize(); c++){
-            sampleShortData[c] = tempSampleShortData.getSoundAt(c);
-        }
+        tempSampleShortData.copyTo(sampleShortData, 0);
     }
     
     /**
-     * remove the first element in the word buffer<br>
-     * calls: none<br>
+     * return the first element in the word buffer without copying it, the word is only valid until
+     * removeOldWord<br>
+     * calls: ringBuffer<br>
+     * called by: volume
+     * @return the word, null if the word buffer is empty
+     */
+    public objSound currentWord(){
+        return (objSound)vBufferWord.peek();
+    }
+    
+    /**
+     * remove the first element in the word buffer, its frames go back to the recording thread<br>
+     * calls: objSound, ringBuffer<br>
      * called by: volume     
      */
     public void removeOldWord(){
-        if (vBufferWord.size() > 0){
-            vBufferWord.removeElementAt(0);
+        objSound word = (objSound)vBufferWord.poll();
+        if (word != null && word.isView()){
+            word.clearFrames();
+            freeWords.offer(word);
         }
-        
     }
     
     /**
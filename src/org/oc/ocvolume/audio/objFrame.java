@@ -44,35 +44,109 @@ Please visit http://ocvolume.sourceforge.net.
 
 package org.oc.ocvolume.audio;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * last modified: June 13, 2002<br>
- * <b>description:</b> store 100ms of samples (1600 samples), and calculate the averge square mean<br>
- * <b>calls:</b> none<br>
+ * <b>description:</b> store 100ms of samples (1600 samples), and calculate the averge square mean and the
+ * zero-crossing rate<br>
+ * frames from a framePool are refilled instead of created for every 100ms, and count the buffers and words that
+ * hold them so they go back to the pool when nobody does<br>
+ * <b>calls:</b> framePool<br>
  * <b>called by:</b> micInput<br>
  * <b>input:</b> 100ms signal<br>
- * <b>output:</b> 100ms signal, squared mean energy
+ * <b>output:</b> 100ms signal, squared mean energy, zero-crossing rate
  * @author Keith Fung
  */
 
 public class objFrame{
-    final int BUFFER_SIZE = 3200;
-    private short sample[] = new short[(int)(BUFFER_SIZE / 2)];
+    final static int BUFFER_SIZE = 3200;
+    private short sample[];
     private double avgEnergy = 0;
+    private double crossingRate = 0;
+    /**
+     * pool the frame goes back to, null if it is not pooled
+     */
+    private final framePool pool;
+    /**
+     * number of holders of a pooled frame
+     */
+    private final AtomicInteger refs = new AtomicInteger(0);
 
     /**
-     * constructor to calculate squared mean energy<br>
+     * constructor to calculate squared mean energy of 100ms at 16 kHz<br>
      * calls: none<br>
      * called by: volume
      * @param bufferRead 100ms speech signal
      */
     public objFrame(short bufferRead[]){
+        this(bufferRead, BUFFER_SIZE / 2);
+    }
+
+    /**
+     * constructor to calculate squared mean energy<br>
+     * calls: none<br>
+     * called by: micInput
+     * @param bufferRead speech signal
+     * @param length number of samples in the frame (100ms at the recording rate)
+     */
+    public objFrame(short bufferRead[], int length){
+        sample = new short[length];
+        pool = null;
+        set(bufferRead);
+    }
+
+    /**
+     * constructor of an empty pooled frame<br>
+     * calls: none<br>
+     * called by: framePool
+     * @param length number of samples in the frame
+     * @param pool pool the frame goes back to
+     */
+    objFrame(int length, framePool pool){
+        sample = new short[length];
+        this.pool = pool;
+    }
 
+    /**
+     * copies the samples and calculates squared mean energy and zero-crossing rate<br>
+     * calls: none<br>
+     * called by: framePool
+     * @param bufferRead speech signal, at least as long as the frame
+     */
+    void set(short bufferRead[]){
+        final int length = sample.length;
         double runningSum = 0;
+        int crossings = 0;
         for (int c = 0; c < sample.length; c++){
             sample[c] = bufferRead[c];
             runningSum += bufferRead[c] * bufferRead[c];
+            if (c > 0 && (((sample[c - 1] > 0) && (sample[c] < 0)) || ((sample[c - 1] < 0) && (sample[c] > 0)))){
+                crossings++;
+            }
+        }
+        avgEnergy = runningSum / length;
+        crossingRate = (double)crossings / length;
+    }
+
+    /**
+     * one more holder of the frame<br>
+     * calls: none<br>
+     * called by: framePool, objSound
+     */
+    void retain(){
+        refs.incrementAndGet();
+    }
+
+    /**
+     * one holder less, the last one gives the frame back to its pool<br>
+     * calls: framePool<br>
+     * called by: micInput, objSound
+     */
+    void release(){
+        if (pool != null && refs.decrementAndGet() == 0){
+            pool.recycle(this);
         }
-        avgEnergy = runningSum / (BUFFER_SIZE / 2);
     }
 
     /**
@@ -85,6 +159,16 @@ public class objFrame{
         return avgEnergy;
     }
 
+    /**
+     * return zero-crossing rate<br>
+     * calls: none<br>
+     * called by: micInput
+     * @return zero-crossings per sample
+     */
+    public double getCrossingRate(){
+        return crossingRate;
+    }
+
     /**
      * return 100ms speech signal<br>
      * calls: none<br>
@@ -94,4 +178,4 @@ public class objFrame{
     public short[] getSample(){
         return sample;
     }
-}
+}
\ No newline at end of file
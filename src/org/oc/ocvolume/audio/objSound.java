@@ -47,7 +47,9 @@ package org.oc.ocvolume.audio;
 /**
  * last modified: June 13, 2002<br>
  * <b>description:</b> combine several 100ms frames<br>
- * <b>calls:</b> none<br>
+ * the frames are either copied into one array, or only referenced (a view), which copies nothing and lets
+ * micInput reuse the frames and the word once the recognizer is done with it<br>
+ * <b>calls:</b> objFrame<br>
  * <b>called by:</b> micInput<br>
  * <b>input:</b> speech signal<br>
  * <b>output:</b> speech signal
@@ -58,6 +60,18 @@ public class objSound{
 
     private short sound[];
     private int curPos = 0;
+    /**
+     * frames of a view, null for a copied sound
+     */
+    private objFrame frames[];
+    /**
+     * number of frames of a view
+     */
+    private int numFrames = 0;
+    /**
+     * number of samples in a frame of a view
+     */
+    private int frameSamples = 0;
 
     /**
      * constructor to create a new short array
@@ -69,6 +83,69 @@ public class objSound{
         sound = new short[totalSample];
     }
 
+    /**
+     * constructor to create an empty view over frames
+     * calls: none
+     * called by: micInput
+     * @param maxFrames maximum number of frames
+     * @param frameSamples number of samples in a frame
+     */
+    public objSound(int maxFrames, int frameSamples){
+        frames = new objFrame[maxFrames];
+        this.frameSamples = frameSamples;
+    }
+
+    /**
+     * adds a frame at the end of a view, the frame is held until clearFrames
+     * calls: objFrame
+     * called by: micInput
+     * @param frame 100ms frame
+     */
+    void addFrame(objFrame frame){
+        frame.retain();
+        frames[numFrames++] = frame;
+    }
+
+    /**
+     * empties a view and releases its frames
+     * calls: objFrame
+     * called by: micInput
+     */
+    void clearFrames(){
+        for (int c = 0; c < numFrames; c++){
+            frames[c].release();
+            frames[c] = null;
+        }
+        numFrames = 0;
+    }
+
+    /**
+     * return true if the sound is a view over frames
+     * calls: none
+     * called by: micInput
+     * @return true for a view
+     */
+    public boolean isView(){
+        return frames != null;
+    }
+
+    /**
+     * copies the speech signal into an array
+     * calls: none
+     * called by: micInput
+     * @param dest array that receives the signal
+     * @param offset position of the first sample in dest
+     */
+    public void copyTo(short dest[], int offset){
+        if (frames == null){
+            System.arraycopy(sound, 0, dest, offset, sound.length);
+            return;
+        }
+        for (int c = 0; c < numFrames; c++){
+            System.arraycopy(frames[c].getSample(), 0, dest, offset + c * frameSamples, frameSamples);
+        }
+    }
+
     /**
      * combining samples
      * calls: none
@@ -77,9 +154,7 @@ public class objSound{
      * @param sampleLength speech signal length
      */
     public void addSound(short sample[], int sampleLength){
-        for (int c = 0; c < sampleLength; c++){
-            sound[c + curPos] = sample[c];
-        }
+        System.arraycopy(sample, 0, sound, curPos, sampleLength);
         curPos += sampleLength;
     }
     /**
@@ -90,6 +165,9 @@ public class objSound{
      * @return amplitude for a specified time
      */
     public short getSoundAt(int IndexNum){
+        if (frames != null){
+            return frames[IndexNum / frameSamples].getSample()[IndexNum % frameSamples];
+        }
         return sound[IndexNum];
     }
     /**
@@ -99,16 +177,24 @@ public class objSound{
      * @return signal
      */
     public int getSoundSize(){
+        if (frames != null){
+            return numFrames * frameSamples;
+        }
         return sound.length;
     }
     
     /**
-     * return speech signal
+     * return speech signal, a view is copied into a new array
      * calls: none
      * called by: volume     
      * @return speech signal
      */
     public short[] getSound(){
+        if (frames != null){
+            short copy[] = new short[getSoundSize()];
+            copyTo(copy, 0);
+            return copy;
+        }
         return sound;
     }
 }
\ No newline at end of file
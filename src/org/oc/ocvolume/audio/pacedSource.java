@@ -0,0 +1,161 @@
+/*
+OC Volume - Java Speech Recognition Engine
+Copyright (c) 2002-2004, OrangeCow organization
+All rights reserved.
+
+Redistribution and use in source and binary forms,
+with or without modification, are permitted provided
+that the following conditions are met:
+
+* Redistributions of source code must retain the
+  above copyright notice, this list of conditions
+  and the following disclaimer.
+* Redistributions in binary form must reproduce the
+  above copyright notice, this list of conditions
+  and the following disclaimer in the documentation
+  and/or other materials provided with the
+  distribution.
+* Neither the name of the OrangeCow organization
+  nor the names of its contributors may be used to
+  endorse or promote products derived from this
+  software without specific prior written
+  permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS
+AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF
+THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+POSSIBILITY OF SUCH DAMAGE.
+
+Contact information:
+Please visit http://ocvolume.sourceforge.net.
+*/
+
+package org.oc.ocvolume.audio;
+
+import java.io.IOException;
+
+/**
+ * <b>description:</b> base of the sources that are not a microphone. They deliver the signal as fast as it can be
+ * read, for batch processing and load tests, or paced like a microphone with setRealTime(true).<br>
+ * <b>calls:</b> none<br>
+ * <b>called by:</b> micInput<br>
+ * <b>input:</b> audio<br>
+ * <b>output:</b> speech signal
+ * @author Keith Fung
+ */
+public abstract class pacedSource implements audioSource{
+    /**
+     * samples per second
+     */
+    protected final float sampleRate;
+    /**
+     * true to deliver the signal no faster than real time
+     */
+    private boolean realTime = false;
+    /**
+     * time of open in nanoseconds
+     */
+    private long startTime = 0;
+    /**
+     * number of samples delivered since open
+     */
+    private long delivered = 0;
+    /**
+     * true after stop
+     */
+    private volatile boolean stopped = false;
+    /**
+     * constructor<br>
+     * calls: none<br>
+     * called by: waveSource, streamSource, generatorSource
+     * @param sampleRate samples per second
+     */
+    protected pacedSource(float sampleRate){
+        this.sampleRate = sampleRate;
+    }
+    /**
+     * deliver the signal no faster than real time, or as fast as possible (the default)<br>
+     * calls: none<br>
+     * called by: volume
+     * @param realTime true to pace the signal like a microphone
+     */
+    public void setRealTime(boolean realTime){
+        this.realTime = realTime;
+    }
+
+    public float getSampleRate(){
+        return sampleRate;
+    }
+
+    public void open() throws Exception{
+        openSource();
+        stopped = false;
+        delivered = 0;
+        startTime = System.nanoTime();
+    }
+
+    public int read(short buffer[], int offset, int length) throws IOException{
+        if (stopped){
+            return -1;
+        }
+        int count = 0;
+        while (count < length){
+            int n = fill(buffer, offset + count, length - count);
+            if (n == -1){
+                break;
+            }
+            count += n;
+        }
+        if (count == 0){
+            return -1;
+        }
+
+        delivered += count;
+        if (realTime){
+            long wait = startTime + (long)(delivered * 1e9 / sampleRate) - System.nanoTime();
+            if (wait > 0){
+                try {
+                    Thread.sleep(wait / 1000000, (int)(wait % 1000000));
+                }
+                catch (InterruptedException e){
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+        return count;
+    }
+
+    public void stop(){
+        stopped = true;
+    }
+    /**
+     * opens the underlying file or stream<br>
+     * calls: none<br>
+     * called by: open
+     * @throws Exception if it cannot be opened
+     */
+    protected abstract void openSource() throws Exception;
+    /**
+     * reads some samples<br>
+     * calls: none<br>
+     * called by: read
+     * @param buffer receives the samples
+     * @param offset position of the first sample in buffer
+     * @param length maximum number of samples
+     * @return number of samples read, at least 1, or -1 at the end of the signal
+     * @throws IOException if the source cannot be read
+     */
+    protected abstract int fill(short buffer[], int offset, int length) throws IOException;
+}
\ No newline at end of file
@@ -0,0 +1,247 @@
+/*
+OC Volume - Java Speech Recognition Engine
+Copyright (c) 2002-2004, OrangeCow organization
+All rights reserved.
+
+Redistribution and use in source and binary forms,
+with or without modification, are permitted provided
+that the following conditions are met:
+
+* Redistributions of source code must retain the
+  above copyright notice, this list of conditions
+  and the following disclaimer.
+* Redistributions in binary form must reproduce the
+  above copyright notice, this list of conditions
+  and the following disclaimer in the documentation
+  and/or other materials provided with the
+  distribution.
+* Neither the name of the OrangeCow organization
+  nor the names of its contributors may be used to
+  endorse or promote products derived from this
+  software without specific prior written
+  permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS
+AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF
+THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+POSSIBILITY OF SUCH DAMAGE.
+
+Contact information:
+Please visit http://ocvolume.sourceforge.net.
+*/
+
+package org.oc.ocvolume.audio;
+
+/**
+ * <b>description:</b> fixed size first-in first-out buffer for one producer thread and one consumer thread. offer
+ * is only called by the producer, poll, peek and get only by the consumer, and neither takes a lock. The consumer
+ * can block in await until something is offered, the producer then wakes it right away, or until the producer
+ * closes the buffer.<br>
+ * <b>calls:</b> none<br>
+ * <b>called by:</b> micInput<br>
+ * <b>input:</b> objects<br>
+ * <b>output:</b> the same objects in the same order
+ * @author Keith Fung
+ */
+public class ringBuffer{
+    /**
+     * storage, the length is a power of 2 at least capacity
+     */
+    private final Object slots[];
+    /**
+     * maximum number of objects, the unused slots are never filled
+     */
+    private final int capacity;
+    /**
+     * slots.length - 1
+     */
+    private final int mask;
+    /**
+     * number of objects taken, only written by the consumer
+     */
+    private volatile long head = 0;
+    /**
+     * number of objects offered, only written by the producer
+     */
+    private volatile long tail = 0;
+    /**
+     * number of consumers in await
+     */
+    private volatile int waiting = 0;
+    /**
+     * true once the producer will not offer anything more
+     */
+    private volatile boolean closed = false;
+    /**
+     * constructor<br>
+     * calls: none<br>
+     * called by: micInput
+     * @param capacity number of objects the buffer can hold
+     */
+    public ringBuffer(int capacity){
+        this.capacity = capacity;
+        int size = 1;
+        while (size < capacity){
+            size <<= 1;
+        }
+        slots = new Object[size];
+        mask = size - 1;
+    }
+    /**
+     * adds an object at the end, producer only<br>
+     * calls: none<br>
+     * called by: micInput
+     * @param o the object
+     * @return false if the buffer is full
+     */
+    public boolean offer(Object o){
+        long t = tail;
+        if (t - head >= capacity){
+            return false;
+        }
+        slots[(int)t & mask] = o;
+        tail = t + 1;
+
+        // tail is written before waiting is read and await does the opposite, so one of them sees the other
+        if (waiting > 0){
+            synchronized (this){
+                notifyAll();
+            }
+        }
+        return true;
+    }
+    /**
+     * removes the first object, consumer only<br>
+     * calls: none<br>
+     * called by: micInput
+     * @return the first object, or null if the buffer is empty
+     */
+    public Object poll(){
+        long h = head;
+        if (h == tail){
+            return null;
+        }
+        int slot = (int)h & mask;
+        Object o = slots[slot];
+        slots[slot] = null;
+        head = h + 1;
+        return o;
+    }
+    /**
+     * returns the first object without removing it, consumer only<br>
+     * calls: none<br>
+     * called by: micInput
+     * @return the first object, or null if the buffer is empty
+     */
+    public Object peek(){
+        return get(0);
+    }
+    /**
+     * returns an object without removing it, consumer only<br>
+     * calls: none<br>
+     * called by: micInput
+     * @param index position from the first object
+     * @return the object, or null if there are not that many objects
+     */
+    public Object get(int index){
+        long h = head;
+        if (index < 0 || index >= tail - h){
+            return null;
+        }
+        return slots[(int)(h + index) & mask];
+    }
+    /**
+     * waits until the buffer is not empty or is closed, consumer only<br>
+     * calls: none<br>
+     * called by: micInput
+     * @return true if there is an object, false if the buffer is closed and empty
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public boolean await() throws InterruptedException{
+        if (!isEmpty()){
+            return true;
+        }
+        synchronized (this){
+            waiting++;
+            try {
+                while (isEmpty() && !closed){
+                    wait();
+                }
+            }
+            finally {
+                waiting--;
+            }
+        }
+        return !isEmpty();
+    }
+    /**
+     * tells the consumer that nothing more will be offered, producer only<br>
+     * calls: none<br>
+     * called by: micInput
+     */
+    public void close(){
+        closed = true;
+        synchronized (this){
+            notifyAll();
+        }
+    }
+    /**
+     * returns whether the buffer was closed<br>
+     * calls: none<br>
+     * called by: micInput
+     * @return true after close
+     */
+    public boolean isClosed(){
+        return closed;
+    }
+    /**
+     * returns the number of objects<br>
+     * calls: none<br>
+     * called by: micInput
+     * @return number of objects in the buffer
+     */
+    public int size(){
+        // head first, so the result is never negative
+        long h = head;
+        return (int)(tail - h);
+    }
+    /**
+     * returns whether the buffer is empty<br>
+     * calls: none<br>
+     * called by: micInput
+     * @return true if there is no object
+     */
+    public boolean isEmpty(){
+        return head == tail;
+    }
+    /**
+     * returns whether the buffer is full<br>
+     * calls: none<br>
+     * called by: micInput
+     * @return true if offer would fail
+     */
+    public boolean isFull(){
+        return tail - head >= capacity;
+    }
+    /**
+     * returns the number of objects the buffer can hold<br>
+     * calls: none<br>
+     * called by: micInput
+     * @return capacity
+     */
+    public int capacity(){
+        return capacity;
+    }
+}
\ No newline at end of file
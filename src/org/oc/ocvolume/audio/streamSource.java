@@ -0,0 +1,136 @@
+/*
+OC Volume - Java Speech Recognition Engine
+Copyright (c) 2002-2004, OrangeCow organization
+All rights reserved.
+
+Redistribution and use in source and binary forms,
+with or without modification, are permitted provided
+that the following conditions are met:
+
+* Redistributions of source code must retain the
+  above copyright notice, this list of conditions
+  and the following disclaimer.
+* Redistributions in binary form must reproduce the
+  above copyright notice, this list of conditions
+  and the following disclaimer in the documentation
+  and/or other materials provided with the
+  distribution.
+* Neither the name of the OrangeCow organization
+  nor the names of its contributors may be used to
+  endorse or promote products derived from this
+  software without specific prior written
+  permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS
+AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF
+THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+POSSIBILITY OF SUCH DAMAGE.
+
+Contact information:
+Please visit http://ocvolume.sourceforge.net.
+*/
+
+package org.oc.ocvolume.audio;
+
+import java.io.*;
+
+/**
+ * <b>description:</b> reads raw 16 bits mono PCM samples without a header from a stream, e.g. a pipe, a socket or
+ * System.in<br>
+ * <b>calls:</b> none<br>
+ * <b>called by:</b> micInput<br>
+ * <b>input:</b> stream of samples<br>
+ * <b>output:</b> speech signal
+ * @author Keith Fung
+ */
+public class streamSource extends pacedSource{
+    /**
+     * the stream
+     */
+    private final InputStream in;
+    /**
+     * byte order of the samples
+     */
+    private final boolean bigEndian;
+    /**
+     * bytes read from the stream
+     */
+    private byte byteBufferRead[] = new byte[4096];
+    /**
+     * 1 if the first byte of a sample was read but not the second one
+     */
+    private int pending = 0;
+    /**
+     * constructor for little-endian samples<br>
+     * calls: none<br>
+     * called by: volume
+     * @param in stream of samples, closed by close
+     * @param sampleRate samples per second
+     */
+    public streamSource(InputStream in, float sampleRate){
+        this(in, sampleRate, micInput.SAMPLE_BIG_ENDIAN);
+    }
+    /**
+     * constructor<br>
+     * calls: none<br>
+     * called by: volume
+     * @param in stream of samples, closed by close
+     * @param sampleRate samples per second
+     * @param bigEndian true if the first byte of a sample is the high byte
+     */
+    public streamSource(InputStream in, float sampleRate, boolean bigEndian){
+        super(sampleRate);
+        this.in = in;
+        this.bigEndian = bigEndian;
+    }
+
+    protected void openSource(){
+    }
+
+    protected int fill(short buffer[], int offset, int length) throws IOException{
+        int bytes = Math.min(length * 2, byteBufferRead.length);
+        int numByteRead;
+        do {
+            numByteRead = in.read(byteBufferRead, pending, bytes - pending);
+            if (numByteRead == -1){
+                return -1;
+            }
+            pending += numByteRead;
+        } while (pending < 2);
+
+        int count = pending / 2;
+        for (int c = 0; c < count; c++){
+            int hi = bigEndian ? byteBufferRead[2 * c] : byteBufferRead[2 * c + 1];
+            int lo = bigEndian ? byteBufferRead[2 * c + 1] : byteBufferRead[2 * c];
+            buffer[offset + c] = (short)((hi << 8) | (lo & 0xff));
+        }
+
+        // an odd byte is kept for the next sample
+        pending -= count * 2;
+        if (pending == 1){
+            byteBufferRead[0] = byteBufferRead[count * 2];
+        }
+        return count;
+    }
+
+    public void close(){
+        try {
+            in.close();
+        }
+        catch (IOException e){
+            e.printStackTrace();
+        }
+    }
+}
\ No newline at end of file
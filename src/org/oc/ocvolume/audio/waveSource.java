@@ -0,0 +1,95 @@
+/*
+OC Volume - Java Speech Recognition Engine
+Copyright (c) 2002-2004, OrangeCow organization
+All rights reserved.
+
+Redistribution and use in source and binary forms,
+with or without modification, are permitted provided
+that the following conditions are met:
+
+* Redistributions of source code must retain the
+  above copyright notice, this list of conditions
+  and the following disclaimer.
+* Redistributions in binary form must reproduce the
+  above copyright notice, this list of conditions
+  and the following disclaimer in the documentation
+  and/or other materials provided with the
+  distribution.
+* Neither the name of the OrangeCow organization
+  nor the names of its contributors may be used to
+  endorse or promote products derived from this
+  software without specific prior written
+  permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS
+AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF
+THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+POSSIBILITY OF SUCH DAMAGE.
+
+Contact information:
+Please visit http://ocvolume.sourceforge.net.
+*/
+
+package org.oc.ocvolume.audio;
+
+import java.io.IOException;
+import org.oc.ocvolume.wav.waveReader;
+
+/**
+ * <b>description:</b> reads a wave file as if it was recorded, converted to 16 bits mono at the requested rate<br>
+ * <b>calls:</b> waveReader<br>
+ * <b>called by:</b> micInput<br>
+ * <b>input:</b> path<br>
+ * <b>output:</b> speech signal
+ * @author Keith Fung
+ */
+public class waveSource extends pacedSource{
+    /**
+     * path of the wave file
+     */
+    private final String path;
+    /**
+     * the open file
+     */
+    private waveReader reader;
+    /**
+     * constructor<br>
+     * calls: none<br>
+     * called by: volume
+     * @param path of the input wave file
+     * @param sampleRate samples per second of the signal
+     */
+    public waveSource(String path, float sampleRate){
+        super(sampleRate);
+        this.path = path;
+    }
+
+    protected void openSource() throws Exception{
+        reader = new waveReader(path, sampleRate);
+    }
+
+    protected int fill(short buffer[], int offset, int length) throws IOException{
+        return reader.read(buffer, offset, length);
+    }
+
+    public void close(){
+        try {
+            reader.close();
+        }
+        catch (Exception e){
+            e.printStackTrace();
+        }
+    }
+}
\ No newline at end of file
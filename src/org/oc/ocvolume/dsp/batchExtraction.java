@@ -0,0 +1,226 @@
+/*
+OC Volume - Java Speech Recognition Engine
+Copyright (c) 2002-2004, OrangeCow organization
+All rights reserved.
+
+Redistribution and use in source and binary forms,
+with or without modification, are permitted provided
+that the following conditions are met:
+
+* Redistributions of source code must retain the
+  above copyright notice, this list of conditions
+  and the following disclaimer.
+* Redistributions in binary form must reproduce the
+  above copyright notice, this list of conditions
+  and the following disclaimer in the documentation
+  and/or other materials provided with the
+  distribution.
+* Neither the name of the OrangeCow organization
+  nor the names of its contributors may be used to
+  endorse or promote products derived from this
+  software without specific prior written
+  permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS
+AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF
+THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+POSSIBILITY OF SUCH DAMAGE.
+
+Contact information:
+Please visit http://ocvolume.sourceforge.net.
+*/
+
+package org.oc.ocvolume.dsp;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import org.oc.ocvolume.wav.waveIO;
+
+/**
+ * <b>description:</b> runs end-point detection and feature extraction on many utterances in parallel on a
+ * fork-join pool. Every worker thread uses its own feature extractor. Results are returned in input order, and
+ * at most maxInFlight utterances are being processed (and held in memory) at the same time.<br>
+ * <b>calls:</b> endPt, featureExtraction, featureCache, waveIO<br>
+ * <b>called by:</b> volume, train<br>
+ * <b>input:</b> speech signals or paths of wave files<br>
+ * <b>output:</b> mel-frequency cepstral coefficients
+ * @author Danny Su
+ */
+public class batchExtraction{
+    /**
+     * pool running the work
+     */
+    private ForkJoinPool pool;
+    /**
+     * maximum number of utterances processed at the same time
+     */
+    private int maxInFlight;
+    /**
+     * whether to run end-point detection before feature extraction
+     */
+    private boolean useEndPoint = true;
+    /**
+     * feature extractor of each worker thread
+     */
+    private ThreadLocal extractors;
+    /**
+     * feature cache checked before extraction, null for none
+     */
+    private featureCache cache = featureCache.getDefault();
+    /**
+     * sampling rate of the front-end, wave files are resampled to it
+     */
+    private float samplingRate;
+    /**
+     * constructor to use one worker per processor<br>
+     * calls: none<br>
+     * called by: volume, train
+     * @param config front-end configuration
+     */
+    public batchExtraction(frontEndConfig config){
+        this(config, Runtime.getRuntime().availableProcessors(), 2 * Runtime.getRuntime().availableProcessors());
+    }
+    /**
+     * constructor<br>
+     * calls: none<br>
+     * called by: volume, train
+     * @param config front-end configuration
+     * @param parallelism number of worker threads
+     * @param maxInFlight maximum number of utterances held in memory at the same time
+     */
+    public batchExtraction(final frontEndConfig config, int parallelism, int maxInFlight){
+        if (parallelism < 1 || maxInFlight < 1){
+            throw new IllegalArgumentException("parallelism and maxInFlight must be positive");
+        }
+        pool = new ForkJoinPool(parallelism);
+        samplingRate = (float)config.getSamplingRate();
+        this.maxInFlight = maxInFlight;
+        extractors = new ThreadLocal(){
+            protected Object initialValue(){
+                return config.newExtractor();
+            }
+        };
+    }
+    /**
+     * turn end-point detection on or off (default is on)<br>
+     * calls: none<br>
+     * called by: volume, train
+     * @param on true to cut the silence around each utterance with endPt.absCut
+     */
+    public void setEndPoint(boolean on){
+        useEndPoint = on;
+    }
+    /**
+     * set the feature cache checked before extraction (default is featureCache.getDefault())<br>
+     * calls: none<br>
+     * called by: volume, train
+     * @param cache feature cache, null to always extract
+     */
+    public void setCache(featureCache cache){
+        this.cache = cache;
+    }
+    /**
+     * extract features of speech signals<br>
+     * calls: endPt, featureExtraction<br>
+     * called by: volume, train
+     * @param signals speech signals (16 bit integer data)
+     * @return features of each signal, in input order
+     */
+    public featureMatrix[] process(short signals[][]){
+        return run(signals, null);
+    }
+    /**
+     * extract features of wave files, each file is only read when a worker is ready for it and is resampled to
+     * the sampling rate of the front-end before end-point detection<br>
+     * calls: waveIO, endPt, featureExtraction<br>
+     * called by: volume, train
+     * @param paths paths of the wave files
+     * @return features of each file, in input order
+     */
+    public featureMatrix[] processFiles(String paths[]){
+        return run(null, paths);
+    }
+    /**
+     * stops the worker threads, the object cannot be used afterwards<br>
+     * calls: none<br>
+     * called by: volume, train
+     */
+    public void close(){
+        pool.shutdown();
+    }
+    /**
+     * submits one task per utterance, never more than maxInFlight at a time<br>
+     * calls: none<br>
+     * called by: batchExtraction
+     */
+    private featureMatrix[] run(final short signals[][], final String paths[]){
+        final int count = (signals != null) ? signals.length : paths.length;
+        final featureMatrix results[] = new featureMatrix[count];
+        final Semaphore window = new Semaphore(maxInFlight);
+        Future futures[] = new Future[count];
+
+        try{
+            for (int i = 0; i < count; i++){
+                window.acquire();
+
+                final int index = i;
+                futures[i] = pool.submit(new Runnable(){
+                    public void run(){
+                        try{
+                            short signal[] = (signals != null) ? signals[index] : waveIO.readWave(paths[index], samplingRate);
+                            results[index] = extract(signal);
+                        }
+                        finally{
+                            window.release();
+                        }
+                    }
+                });
+            }
+
+            for (int i = 0; i < count; i++){
+                futures[i].get();
+            }
+        }
+        catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("batch extraction interrupted", e);
+        }
+        catch(ExecutionException e){
+            throw new RuntimeException("batch extraction failed", e.getCause());
+        }
+
+        return results;
+    }
+    /**
+     * end-point detection and feature extraction of one utterance on the current worker<br>
+     * calls: endPt, featureExtraction<br>
+     * called by: batchExtraction
+     * @param signal speech signal
+     * @return features
+     */
+    private featureMatrix extract(short signal[]){
+        featureExtractor fe = (featureExtractor)extractors.get();
+        if (cache != null){
+            return cache.getFeatures(signal, useEndPoint, fe);
+        }
+
+        if (useEndPoint){
+            signal = endPt.absCut(signal);
+        }
+        return fe.extractMatrix(signal);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,264 @@
+/*
+OC Volume - Java Speech Recognition Engine
+Copyright (c) 2002-2004, OrangeCow organization
+All rights reserved.
+
+Redistribution and use in source and binary forms,
+with or without modification, are permitted provided
+that the following conditions are met:
+
+* Redistributions of source code must retain the
+  above copyright notice, this list of conditions
+  and the following disclaimer.
+* Redistributions in binary form must reproduce the
+  above copyright notice, this list of conditions
+  and the following disclaimer in the documentation
+  and/or other materials provided with the
+  distribution.
+* Neither the name of the OrangeCow organization
+  nor the names of its contributors may be used to
+  endorse or promote products derived from this
+  software without specific prior written
+  permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS
+AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF
+THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+POSSIBILITY OF SUCH DAMAGE.
+
+Contact information:
+Please visit http://ocvolume.sourceforge.net.
+*/
+
+package org.oc.ocvolume.dsp;
+
+/**
+ * <b>description:</b> inner loops of feature extraction. The scalar implementation is always available; a SIMD
+ * implementation based on jdk.incubator.vector (vectorKernels, in the optional simd/src source root) is used
+ * instead when it was compiled and the JVM was started with
+ * <code>--add-modules jdk.incubator.vector</code> and its results agree with the scalar ones.
+ * Set the system property <code>org.oc.ocvolume.simd</code> to <code>off</code> to always use the scalar loops.<br>
+ * <b>calls:</b> scalarKernels, vectorKernels<br>
+ * <b>called by:</b> featureExtraction, featureStream, fftPlan<br>
+ * <b>input:</b> arrays<br>
+ * <b>output:</b> arrays
+ * @author Danny Su
+ */
+public abstract class dspKernels{
+    /**
+     * relative tolerance allowed between the SIMD and scalar results
+     */
+    protected final static double TOLERANCE = 1e-9;
+    /**
+     * kernels chosen at startup
+     */
+    private static dspKernels instance;
+    /**
+     * returns the kernels chosen at startup<br>
+     * calls: scalarKernels, vectorKernels<br>
+     * called by: featureExtraction, featureStream
+     * @return kernels shared by all extractors
+     */
+    public static synchronized dspKernels getInstance(){
+        if (instance == null){
+            dspKernels scalar = new scalarKernels();
+            instance = scalar;
+
+            if (!"off".equals(System.getProperty("org.oc.ocvolume.simd"))){
+                try{
+                    dspKernels simd = (dspKernels)Class.forName("org.oc.ocvolume.dsp.vectorKernels").getDeclaredConstructor().newInstance();
+                    if (agrees(simd, scalar)){
+                        instance = simd;
+                    }
+                    else{
+                        System.out.println("err: SIMD kernels disagree with scalar kernels, using scalar kernels");
+                    }
+                }
+                catch(Throwable e){
+                    // simd/src was not compiled or jdk.incubator.vector is not available, keep the scalar kernels
+                }
+            }
+        }
+        return instance;
+    }
+    /**
+     * returns the scalar kernels<br>
+     * calls: scalarKernels<br>
+     * called by: volume
+     * @return scalar kernels
+     */
+    public static dspKernels getScalar(){
+        return new scalarKernels();
+    }
+    /**
+     * name of the implementation<br>
+     * calls: none<br>
+     * called by: volume
+     * @return name
+     */
+    public abstract String getName();
+    /**
+     * pre-emphasis and window: out[n] = (signal[start + n] - alpha * signal[start + n - 1]) * window[n] for from &lt;= n &lt; to<br>
+     * start + from must be at least 1 and start + to - 1 must be inside signal<br>
+     * calls: none<br>
+     * called by: featureExtraction
+     * @param signal speech signal (16 bit integer data)
+     * @param start index in signal of the first sample of the frame
+     * @param alpha pre-emphasis alpha
+     * @param window window values
+     * @param out frame
+     * @param from first frame index to compute
+     * @param to frame index after the last one to compute
+     */
+    public abstract void preEmphasisWindow(short signal[], int start, double alpha, double window[], double out[], int from, int to);
+    /**
+     * element-wise product: out[n] = a[n] * b[n] for 0 &lt;= n &lt; length<br>
+     * calls: none<br>
+     * called by: featureStream
+     * @param a first array
+     * @param b second array
+     * @param out result, may be the same array as a
+     * @param length number of elements
+     */
+    public abstract void multiply(double a[], double b[], double out[], int length);
+    /**
+     * magnitude of complex values: out[k] = sqrt(re[k]^2 + im[k]^2) for 0 &lt;= k &lt; length<br>
+     * calls: none<br>
+     * called by: featureExtraction
+     * @param re real parts
+     * @param im imaginary parts
+     * @param out magnitudes
+     * @param length number of values
+     */
+    public abstract void magnitude(double re[], double im[], double out[], int length);
+    /**
+     * dot product of a[aOffset .. aOffset + length) and b[bOffset .. bOffset + length)<br>
+     * calls: none<br>
+     * called by: featureExtraction
+     * @param a first array
+     * @param aOffset first index in a
+     * @param b second array
+     * @param bOffset first index in b
+     * @param length number of elements
+     * @return sum of products
+     */
+    public abstract double dot(double a[], int aOffset, double b[], int bOffset, int length);
+    /**
+     * one radix-2 butterfly applied to several interleaved transforms: for 0 &lt;= l &lt; lanes,
+     * t = (re[bottom + l], im[bottom + l]) * (ur, ui), then bottom = top - t and top = top + t<br>
+     * calls: none<br>
+     * called by: fftPlan
+     * @param re real parts
+     * @param im imaginary parts
+     * @param top index of lane 0 of the top input
+     * @param bottom index of lane 0 of the bottom input
+     * @param lanes number of transforms
+     * @param ur real part of the twiddle factor
+     * @param ui imaginary part of the twiddle factor
+     */
+    public abstract void butterfly(double re[], double im[], int top, int bottom, int lanes, double ur, double ui);
+    /**
+     * compares two implementations on random data<br>
+     * calls: none<br>
+     * called by: dspKernels
+     * @param k kernels to check
+     * @param ref reference kernels
+     * @return true if all results are within TOLERANCE
+     */
+    protected static boolean agrees(dspKernels k, dspKernels ref){
+        final int n = 515;
+        java.util.Random random = new java.util.Random(12345);
+        short signal[] = new short[n + 1];
+        double a[] = new double[n];
+        double b[] = new double[n];
+        for (int i = 0; i < n; i++){
+            signal[i] = (short)(random.nextInt(65536) - 32768);
+            a[i] = random.nextGaussian() * 1000;
+            b[i] = random.nextGaussian();
+        }
+        signal[n] = (short)random.nextInt(32768);
+
+        double out1[] = new double[n];
+        double out2[] = new double[n];
+        double windowed[] = new double[n];
+        for (int from = 0; from < 4; from++){
+            k.preEmphasisWindow(signal, 1, 0.95, b, out1, from, n - from);
+            ref.preEmphasisWindow(signal, 1, 0.95, b, out2, from, n - from);
+            if (!close(out1, out2, n)){
+                return false;
+            }
+        }
+
+        k.multiply(a, b, out1, n);
+        ref.multiply(a, b, out2, n);
+        if (!close(out1, out2, n)){
+            return false;
+        }
+
+        k.magnitude(a, b, out1, n);
+        ref.magnitude(a, b, out2, n);
+        if (!close(out1, out2, n)){
+            return false;
+        }
+
+        double re1[] = a.clone();
+        double im1[] = b.clone();
+        double re2[] = a.clone();
+        double im2[] = b.clone();
+        for (int lanes = 1; lanes < 20; lanes++){
+            k.butterfly(re1, im1, lanes, 2 * lanes + 3, lanes, 0.6, -0.8);
+            ref.butterfly(re2, im2, lanes, 2 * lanes + 3, lanes, 0.6, -0.8);
+        }
+        if (!close(re1, re2, n) || !close(im1, im2, n)){
+            return false;
+        }
+
+        // scale of the dot product, used as the reference for the rounding error
+        k.multiply(a, b, windowed, n);
+        for (int length = 0; length < 40; length++){
+            for (int offset = 0; offset < 3; offset++){
+                double d1 = k.dot(a, offset, b, 2 - offset, length);
+                double d2 = ref.dot(a, offset, b, 2 - offset, length);
+                double scale = 1;
+                for (int i = 0; i < length; i++){
+                    scale += Math.abs(windowed[offset + i]);
+                }
+                if (Math.abs(d1 - d2) > TOLERANCE * scale){
+                    return false;
+                }
+            }
+        }
+        double d1 = k.dot(a, 0, b, 0, n);
+        double d2 = ref.dot(a, 0, b, 0, n);
+        double scale = 1;
+        for (int i = 0; i < n; i++){
+            scale += Math.abs(windowed[i]);
+        }
+        return Math.abs(d1 - d2) <= TOLERANCE * scale;
+    }
+    /**
+     * checks whether two arrays are equal within TOLERANCE<br>
+     * calls: none<br>
+     * called by: dspKernels
+     */
+    private static boolean close(double x[], double y[], int length){
+        for (int i = 0; i < length; i++){
+            if (Math.abs(x[i] - y[i]) > TOLERANCE * (1 + Math.abs(y[i]))){
+                return false;
+            }
+        }
+        return true;
+    }
+}
\ No newline at end of file
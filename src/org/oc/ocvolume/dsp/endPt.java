@@ -51,7 +51,7 @@ import java.io.*;
  * last modified: June 15, 2002<br>
  * <b>description:</b> this is the detection of the noise and search for the spot where the acutal word is being sounded,
  * and remove the noise from the sample.<br>
- * <b>calls:</b> none<br>
+ * <b>calls:</b> noiseFloor<br>
  * <b>called by:</b> volume, train<br>
  * <b>input:</b> speech signal<br>
  * <b>output:</b> modified speech signal
@@ -65,16 +65,19 @@ public class endPt{
 
     /**
      * a method to use this class<br>
-     * calls: zeroCrossingBoolean, avgEnergy, zeroCrossing, chopping<br>
+     * calls: frameStatistics, avgEnergy, zeroCrossing, chopping<br>
      * called by: volume
      * @param sample the sample that's going to be modified
      * @return modified sample
      */
     public static short[] absCut(short sample[]){
         if (sample.length > 3200){
-            boolean crossingBoolean[] = zeroCrossingBoolean(sample);
-            int energy[] = avgEnergy(sample);
-            int crossing[] = zeroCrossing(sample,energy,crossingBoolean);
+            int numFrames = sample.length / frameSize;
+            double energyFrame[] = new double[numFrames];
+            double crossingFrame[] = new double[numFrames];
+            frameStatistics(sample, energyFrame, crossingFrame);
+            int energy[] = avgEnergy(energyFrame, numFrames);
+            int crossing[] = zeroCrossing(crossingFrame, numFrames, energy);
             short chopped[] = chopping (sample, crossing);
             return chopped;
         }    
@@ -83,6 +86,55 @@ public class endPt{
         }
     }
 
+    /**
+     * same as absCut, but the noise energy comes from a noiseFloor that follows the background noise (e.g. the
+     * one of micInput), instead of from the first and last 100ms of the sample. The zero-crossing thresholds are
+     * still measured on the 5ms frames of the sample, because the spread of the crossing rate depends on the frame
+     * length. Without an estimate yet, it is the same as absCut<br>
+     * calls: frameStatistics, avgEnergy, zeroCrossing, chopping<br>
+     * called by: volume
+     * @param sample the sample that's going to be modified
+     * @param floor noise level estimate, it is not changed
+     * @return modified sample
+     */
+    public static short[] absCut(short sample[], noiseFloor floor){
+        return absCut(sample, sample.length, floor);
+    }
+
+    /**
+     * same as absCut with a noiseFloor, for a signal at the start of a longer buffer (e.g. a buffer that is
+     * reused for every word). Only the first length samples are read<br>
+     * calls: frameStatistics, avgEnergy, zeroCrossing, chopping<br>
+     * called by: volume
+     * @param sample buffer holding the signal
+     * @param length number of samples of the signal
+     * @param floor noise level estimate, or null to use the first and last 100ms as noise
+     * @return modified sample, a new array unless the whole buffer is returned
+     */
+    public static short[] absCut(short sample[], int length, noiseFloor floor){
+        if (floor != null && !floor.isReady()){
+            floor = null;
+        }
+        if (length > 3200){
+            int numFrames = length / frameSize;
+            double energyFrame[] = new double[numFrames];
+            double crossingFrame[] = new double[numFrames];
+            frameStatistics(sample, length, energyFrame, crossingFrame);
+            int energy[] = avgEnergy(energyFrame, numFrames, floor);
+            int crossing[] = zeroCrossing(crossingFrame, numFrames, energy);
+            short chopped[] = chopping (sample, crossing);
+            return chopped;
+        }    
+        else if (length == sample.length){
+            return sample;
+        }
+        else{
+            short signal[] = new short[length];
+            System.arraycopy(sample, 0, signal, 0, length);
+            return signal;
+        }
+    }
+
     /**
      * cut the sample into smaller part<br>
      * calls: none<br>
@@ -103,23 +155,93 @@ public class endPt{
         return chopFile;
     }
 
+    /**
+     * energy and zero-crossing rate of every 5ms frame (80 samples / frame) in one pass over the sample<br>
+     * the end frame is dropped, high probability of being noise<br>
+     * calls: none<br>
+     * called by: absCut, energyGraph, crossingGraph
+     * @param sample speech signal
+     * @param energyFrame receives the squared mean energy of each frame, may be longer than needed
+     * @param crossingFrame receives the zero-crossing rate of each frame, may be longer than needed
+     * @return number of frames
+     */
+    public static int frameStatistics(short sample[], double energyFrame[], double crossingFrame[]){
+        return frameStatistics(sample, sample.length, energyFrame, crossingFrame);
+    }
+
+    /**
+     * energy and zero-crossing rate of every 5ms frame of the first length samples<br>
+     * calls: none<br>
+     * called by: absCut, frameStatistics
+     * @param sample buffer holding the speech signal
+     * @param length number of samples of the signal
+     * @param energyFrame receives the squared mean energy of each frame, may be longer than needed
+     * @param crossingFrame receives the zero-crossing rate of each frame, may be longer than needed
+     * @return number of frames
+     */
+    public static int frameStatistics(short sample[], int length, double energyFrame[], double crossingFrame[]){
+        int numFrames = length / frameSize;
+        double runningSum = 0;
+        int crossings = 0;
+
+        for (int c = 0; c < numFrames; c++){
+            runningSum = 0;
+            crossings = 0;
+            int end = (c + 1) * frameSize;
+            //the last sample of the frame is compared with the first sample of the next frame
+            int crossingEnd = Math.min(end, length - 1);
+            for (int d = c * frameSize; d < end; d++){
+                runningSum += (sample[d] * sample[d]);
+                if (d < crossingEnd && (((sample[d] > 0) && (sample[d + 1] < 0)) || ((sample[d] < 0) && (sample[d + 1] > 0)))){
+                    crossings++;
+                }
+            }
+            energyFrame[c] = runningSum / frameSize;
+            crossingFrame[c] = (double)crossings / frameSize;
+        }
+        return numFrames;
+    }
+
     /**
      * 5ms frame (80 samples / frame)<br>
      * determent the noise location base on the energy<br>
-     * calls: none<br>
-     * called by: absCut    
+     * calls: energyGraph<br>
+     * called by: none    
      * @param sample the sample which is being analyze
      * @return squared mean energy
      */
     public static int[] avgEnergy(short sample[]){
+        double energyFrame[] = energyGraph(sample);
+        return avgEnergy(energyFrame, energyFrame.length);
+    }
+
+    /**
+     * determent the noise location base on the energy of 5ms frames<br>
+     * calls: none<br>
+     * called by: absCut, avgEnergy    
+     * @param energyFrame squared mean energy of each frame, from frameStatistics
+     * @param numFrames number of frames
+     * @return squared mean energy
+     */
+    public static int[] avgEnergy(double energyFrame[], int numFrames){
+        return avgEnergy(energyFrame, numFrames, null);
+    }
+
+    /**
+     * determent the noise location base on the energy of 5ms frames and a noise level estimate<br>
+     * calls: noiseFloor<br>
+     * called by: absCut, avgEnergy    
+     * @param energyFrame squared mean energy of each frame, from frameStatistics
+     * @param numFrames number of frames
+     * @param floor noise level, or null to use the first and last 100ms as noise
+     * @return squared mean energy
+     */
+    public static int[] avgEnergy(double energyFrame[], int numFrames, noiseFloor floor){
         final double energyConst = 1.95;
         
         //[0] = beginning cut, [1] = ending cut
         int energyCut[] = new int[2];
 
-        //drop the end frame, high probability of being noise
-        double energyFrame[] = new double[(int)(sample.length / frameSize)];
-
         //temp Sum variable
         double runningSum = 0;
 
@@ -135,20 +257,16 @@ public class endPt{
         boolean belowThreshold = true;
         boolean valleyFound = true;
 
-        for (int c = 0; c < energyFrame.length; c++){
-            runningSum = 0;
-            for(int d = c * frameSize; d < (c + 1) * frameSize; d++){
-                runningSum += (sample[d] * sample[d]);
-            }
-            energyFrame[c] = runningSum / frameSize;
-        }
+        //read once, so both cuts use the same level while the recording thread updates the floor
+        double floorEnergy = (floor != null) ? floor.getEnergy() : 0;
+
         runningSum = 0;
         for (int c = 0; c < 20; c++){
             runningSum += energyFrame[c];
         }
-        noiseEnergy = runningSum / 20;
+        noiseEnergy = (floor != null) ? floorEnergy : runningSum / 20;
         noiseEnergyThreshold = noiseEnergy * energyConst;
-        energyCut[1] = energyFrame.length - 22;  
+        energyCut[1] = numFrames - 22;  
         energyCut[0] = 20;
 
 
@@ -156,7 +274,7 @@ public class endPt{
         //searching the starting cut
         location = 20;    //first frame
         belowThreshold = true;
-        while((location < (energyFrame.length - 36)) && (belowThreshold)){
+        while((location < (numFrames - 36)) && (belowThreshold)){
 
             if (energyFrame[location] > noiseEnergyThreshold){
 
@@ -199,15 +317,15 @@ public class endPt{
 
         //cal threshold from the last 100ms sample
         runningSum = 0;
-        for (int c = energyFrame.length - 21; c < energyFrame.length; c++){
+        for (int c = numFrames - 21; c < numFrames; c++){
             runningSum += energyFrame[c];
         }
-        noiseEnergy = runningSum / 20;
+        noiseEnergy = (floor != null) ? floorEnergy : runningSum / 20;
         noiseEnergyThreshold = noiseEnergy * energyConst;
-        energyCut[1] = energyFrame.length - 22; 
+        energyCut[1] = numFrames - 22; 
 
 
-        location = energyFrame.length - 22;    //last frame
+        location = numFrames - 22;    //last frame
         belowThreshold = true;
         while((location > 35) && (belowThreshold)){
             if (energyFrame[location] > noiseEnergyThreshold){
@@ -224,7 +342,7 @@ public class endPt{
                     //valley search
                     valleyFound = true;
                     backwardLocation = 0;
-                    while((valleyFound) && (backwardLocation < 16) && ((location + backwardLocation) < (energyFrame.length - 22))){
+                    while((valleyFound) && (backwardLocation < 16) && ((location + backwardLocation) < (numFrames - 22))){
 
                         if (energyFrame[location + backwardLocation + 1] < energyFrame[location + backwardLocation]){
                             //set new cutting location
@@ -246,30 +364,22 @@ public class endPt{
     
     /**
      * calculate the avg energy for 5ms frame<br>
-     * calls: none<br>
-     * called by: none    
+     * calls: frameStatistics<br>
+     * called by: avgEnergy    
      * @param sample speech signal
      * @return array of squared mean energy in 5ms frame
      */
     private static double[] energyGraph(short sample[]){
-        double runningSum = 0;
         //drop the end frame, high probability of being noise
         double energyFrame[] = new double[(int)(sample.length / frameSize)];
-
-        for (int c = 0; c < energyFrame.length; c++){
-            runningSum = 0;
-            for(int d = c * frameSize; d < (c + 1) * frameSize; d++){
-                runningSum += (sample[d] * sample[d]);
-            }
-            energyFrame[c] = runningSum / frameSize;
-        }
+        frameStatistics(sample, energyFrame, new double[energyFrame.length]);
         return energyFrame;
     }
 
     /**
      * Simply mark off the location of Zero-Crossing<br>
      * calls: none<br>
-     * called by: absCut    
+     * called by: none    
      * @return a boolean array with the same size as the sample, true = a zero-crossing, false = no zero-crossing
      * @param sample speech signal
      */
@@ -293,14 +403,37 @@ public class endPt{
      * @return start and end of voiced speech signal
      */
     public static int[] zeroCrossing(short sample[], int energy[], boolean crossing[]){
+        double crossingFrame[] = new double [(int)(sample.length/frameSize)];
+        double runningSum = 0;
+
+        for (int c = 0; c < crossingFrame.length; c++){
+            runningSum = 0;
+            for (int d = c * frameSize; d < (c + 1) * frameSize; d++){
+                if (crossing[d]){
+                    runningSum++;
+                }
+            }
+            crossingFrame[c] = runningSum / frameSize;
+        }
+        return zeroCrossing(crossingFrame, crossingFrame.length, energy);
+    }
+
+    /**
+     * search for the end points based on the zero-crossing rate of 5ms frames and result from avgEnergy<br>
+     * calls: none<br>
+     * called by: absCut, zeroCrossing    
+     * @param crossingFrame zero-crossing rate of each frame, from frameStatistics
+     * @param numFrames number of frames
+     * @param energy result from avgEnergy, which is used as the starting point
+     * @return start and end of voiced speech signal
+     */
+    public static int[] zeroCrossing(double crossingFrame[], int numFrames, int energy[]){
         final double crossingConst = 12.5;
 
         int crossingCut[] = new int[2];
         crossingCut[0] = energy[0];
         crossingCut[1] = energy[1] - 1;
         
-        double crossingFrame[] = new double [(int)(sample.length/frameSize)];
-
         double crossingSD = 0;    //standard deviation
         double IZC = 0;    //average zero-crossing rate
         double IZCT = 0.15625;    //zero-crossing rate threshold
@@ -310,16 +443,6 @@ public class endPt{
         double runningSum = 0;
 
         int location = 0;
-        
-        for (int c = 0; c < crossingFrame.length; c++){
-            runningSum = 0;
-            for (int d = c * frameSize; d < (c + 1) * frameSize; d++){
-                if (crossing[d]){
-                    runningSum++;
-                }
-            }
-            crossingFrame[c] = runningSum / frameSize;
-        }
 
         //cal the avg
         runningSum = 0;
@@ -382,7 +505,7 @@ public class endPt{
         //use the last 100ms as noise and cal threshold for zero-crossing
         //cal the avg
         runningSum = 0;
-        for (int c = crossingFrame.length - 21; c < crossingFrame.length; c++){
+        for (int c = numFrames - 21; c < numFrames; c++){
             runningSum += crossingFrame[c];
 
         }
@@ -391,7 +514,7 @@ public class endPt{
         
         //cal the standard deviation 
         runningSum = 0;
-        for (int c = crossingFrame.length - 21; c < crossingFrame.length; c++){
+        for (int c = numFrames - 21; c < numFrames; c++){
             runningSum += crossingFrame[c] * crossingFrame[c];
 
         }
@@ -409,8 +532,8 @@ public class endPt{
         //ending peak search for 80ms
         location = crossingCut[1] + 16;
 
-        if (location > crossingFrame.length - 22){
-            location = crossingFrame.length - 22;
+        if (location > numFrames - 22){
+            location = numFrames - 22;
         }
 
         crossingPeak = location;
@@ -426,8 +549,8 @@ public class endPt{
             crossingCut[1] = crossingPeak;
             //find global min for the next 50ms
             location = crossingCut[1] + 10;
-            if (location > crossingFrame.length - 22){
-                location = crossingFrame.length - 22;
+            if (location > numFrames - 22){
+                location = numFrames - 22;
             }
             crossingPeak = location;
             while(location != crossingCut[1]){
@@ -446,26 +569,14 @@ public class endPt{
 
     /**
      * calculate the zero-crossing rate for 5ms frame<br>
-     * calls: none<br>
+     * calls: frameStatistics<br>
      * called by: none
      * @param sample speech signal
      * @return an array of zero-crossing rate for every 5ms frame
      */
     private static double[] crossingGraph(short sample[]){
-
-        boolean crossing[] = zeroCrossingBoolean(sample);
         double crossingFrame[] = new double[(int)(sample.length/ frameSize)];
-        double runningSum = 0;
-        
-        for (int c = 0; c < crossingFrame.length; c++){
-            runningSum = 0;
-            for (int d = c * frameSize; d < (c + 1) * frameSize; d++){
-                if (crossing[d]){
-                    runningSum++;
-                }
-            }
-            crossingFrame[c] = runningSum / frameSize;
-        }
+        frameStatistics(sample, new double[crossingFrame.length], crossingFrame);
         return crossingFrame;
     }
 }
\ No newline at end of file
@@ -0,0 +1,349 @@
+/*
+OC Volume - Java Speech Recognition Engine
+Copyright (c) 2002-2004, OrangeCow organization
+All rights reserved.
+
+Redistribution and use in source and binary forms,
+with or without modification, are permitted provided
+that the following conditions are met:
+
+* Redistributions of source code must retain the
+  above copyright notice, this list of conditions
+  and the following disclaimer.
+* Redistributions in binary form must reproduce the
+  above copyright notice, this list of conditions
+  and the following disclaimer in the documentation
+  and/or other materials provided with the
+  distribution.
+* Neither the name of the OrangeCow organization
+  nor the names of its contributors may be used to
+  endorse or promote products derived from this
+  software without specific prior written
+  permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS
+AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF
+THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+POSSIBILITY OF SUCH DAMAGE.
+
+Contact information:
+Please visit http://ocvolume.sourceforge.net.
+*/
+
+package org.oc.ocvolume.dsp;
+
+import java.io.*;
+import java.security.MessageDigest;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * <b>description:</b> on-disk cache of feature matrices. An entry is keyed by a SHA-1 hash of the audio samples,
+ * the front-end configuration and type, and whether end-point detection was used, so a recording that did not change is
+ * never run through the DSP again. The least recently used entries are removed when the total size of the cache
+ * goes over its limit. The cache can be shared by several threads.<br>
+ * The cache used by train and batchExtraction by default is set with the system properties
+ * <code>org.oc.ocvolume.cache</code> (directory) and <code>org.oc.ocvolume.cache.size</code> (megabytes, default 1024).<br>
+ * <b>calls:</b> featureExtraction, endPt<br>
+ * <b>called by:</b> train, batchExtraction<br>
+ * <b>input:</b> speech signal<br>
+ * <b>output:</b> mel-frequency cepstral coefficient
+ * @author Danny Su
+ */
+public class featureCache{
+    /**
+     * first int of every cache file
+     */
+    private final static int MAGIC = 0x4f43564d;    // "OCVM"
+    /**
+     * format version, part of the key so entries of an older format are never read
+     */
+    private final static int VERSION = 1;
+    /**
+     * file name extension of cache entries
+     */
+    private final static String EXTENSION = ".mfc";
+    /**
+     * file name extension of entries being written
+     */
+    private final static String TEMP_EXTENSION = ".tmp";
+    /**
+     * age in milliseconds after which a temporary file is taken as left over from an interrupted write, other
+     * processes sharing the directory may still be writing younger ones
+     */
+    private final static long STALE_TEMP_AGE = 60 * 60 * 1000L;
+    /**
+     * cache configured by system properties
+     */
+    private static featureCache defaultCache;
+    /**
+     * whether the system properties have been read
+     */
+    private static boolean defaultChecked = false;
+    /**
+     * directory holding the entries
+     */
+    private File dir;
+    /**
+     * maximum total size in bytes
+     */
+    private long maxBytes;
+    /**
+     * total size of all entries in bytes
+     */
+    private long totalBytes = 0;
+    /**
+     * entry name to size in bytes, least recently used first
+     */
+    private LinkedHashMap index = new LinkedHashMap(16, 0.75f, true);
+    /**
+     * returns the cache set by the system properties, or null if none is set<br>
+     * calls: featureCache<br>
+     * called by: train, batchExtraction
+     * @return shared cache or null
+     */
+    public static synchronized featureCache getDefault(){
+        if (!defaultChecked){
+            defaultChecked = true;
+            String path = System.getProperty("org.oc.ocvolume.cache");
+            if (path != null){
+                long mb = Long.parseLong(System.getProperty("org.oc.ocvolume.cache.size", "1024"));
+                defaultCache = new featureCache(path, mb * 1024 * 1024);
+            }
+        }
+        return defaultCache;
+    }
+    /**
+     * constructor to open (or create) a cache directory<br>
+     * calls: none<br>
+     * called by: volume, train
+     * @param path directory holding the entries
+     * @param maxBytes maximum total size in bytes
+     */
+    public featureCache(String path, long maxBytes){
+        dir = new File(path);
+        this.maxBytes = maxBytes;
+
+        if (!dir.isDirectory() && !dir.mkdirs()){
+            throw new IllegalArgumentException("cannot create cache directory " + path);
+        }
+
+        // oldest entries first, the modification time is updated on every hit
+        File files[] = dir.listFiles();
+        long now = System.currentTimeMillis();
+        java.util.Arrays.sort(files, new java.util.Comparator(){
+            public int compare(Object a, Object b){
+                long d = ((File)a).lastModified() - ((File)b).lastModified();
+                return d < 0 ? -1 : (d > 0 ? 1 : 0);
+            }
+        });
+        for (int i = 0; i < files.length; i++){
+            String name = files[i].getName();
+            if (name.endsWith(EXTENSION)){
+                index.put(name, Long.valueOf(files[i].length()));
+                totalBytes += files[i].length();
+            }
+            else if (name.endsWith(TEMP_EXTENSION) && now - files[i].lastModified() > STALE_TEMP_AGE){
+                // left over from an interrupted write
+                files[i].delete();
+            }
+        }
+        evict();
+    }
+    /**
+     * returns the features of a signal, from the cache if possible<br>
+     * calls: endPt, featureExtraction<br>
+     * called by: train, batchExtraction
+     * @param signal speech signal as recorded (16 bit integer data)
+     * @param endPoint true to run endPt.absCut before feature extraction
+     * @param fe extractor used on a cache miss, its configuration and type are part of the key
+     * @return features of the signal
+     */
+    public featureMatrix getFeatures(short signal[], boolean endPoint, featureExtractor fe){
+        String name = key(signal, endPoint, fe) + EXTENSION;
+
+        featureMatrix features = read(name);
+        if (features == null){
+            short input[] = endPoint ? endPt.absCut(signal) : signal;
+            features = fe.extractMatrix(input);
+            write(name, features);
+        }
+
+        return features;
+    }
+    /**
+     * returns the total size of all entries<br>
+     * calls: none<br>
+     * called by: volume, train
+     * @return size in bytes
+     */
+    public synchronized long getTotalBytes(){
+        return totalBytes;
+    }
+    /**
+     * computes the key of an entry<br>
+     * calls: none<br>
+     * called by: featureCache
+     */
+    private static String key(short signal[], boolean endPoint, featureExtractor fe){
+        try{
+            MessageDigest md = MessageDigest.getInstance("SHA-1");
+
+            byte buffer[] = new byte[8192];
+            int pos = 0;
+            for (int c = 0; c < signal.length; c++){
+                buffer[pos++] = (byte)signal[c];
+                buffer[pos++] = (byte)(signal[c] >> 8);
+                if (pos == buffer.length){
+                    md.update(buffer, 0, pos);
+                    pos = 0;
+                }
+            }
+            md.update(buffer, 0, pos);
+            md.update(("|" + signal.length + "|" + endPoint + "|" + fe.getConfig() + "|" + fe.getClass().getName() + "|v" + VERSION).getBytes("UTF-8"));
+
+            byte digest[] = md.digest();
+            StringBuffer hex = new StringBuffer();
+            for (int i = 0; i < digest.length; i++){
+                hex.append(Character.forDigit((digest[i] >> 4) & 0xf, 16));
+                hex.append(Character.forDigit(digest[i] & 0xf, 16));
+            }
+            return hex.toString();
+        }
+        catch(Exception e){
+            throw new RuntimeException("cannot compute cache key", e);
+        }
+    }
+    /**
+     * reads an entry<br>
+     * calls: none<br>
+     * called by: featureCache
+     * @return features, or null if the entry does not exist or cannot be read
+     */
+    private featureMatrix read(String name){
+        synchronized (this){
+            if (index.get(name) == null){
+                return null;
+            }
+        }
+
+        File file = new File(dir, name);
+        try{
+            DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            try{
+                if (in.readInt() != MAGIC || in.readInt() != VERSION){
+                    throw new IOException("not a feature cache file");
+                }
+                int numFrames = in.readInt();
+                int dimension = in.readInt();
+                featureMatrix features = new featureMatrix(numFrames, dimension);
+                double data[] = features.getData();
+                for (int i = 0; i < data.length; i++){
+                    data[i] = in.readDouble();
+                }
+
+                file.setLastModified(System.currentTimeMillis());
+                return features;
+            }
+            finally{
+                in.close();
+            }
+        }
+        catch(IOException e){
+            // treat a damaged or removed entry as a miss
+            remove(name);
+            return null;
+        }
+    }
+    /**
+     * writes an entry and removes old entries if the cache is too big<br>
+     * calls: none<br>
+     * called by: featureCache
+     */
+    private void write(String name, featureMatrix features){
+        File file = new File(dir, name);
+        File tmp = null;
+        try{
+            // a new unique name, so threads and processes sharing the directory never write the same file
+            tmp = File.createTempFile(name + ".", TEMP_EXTENSION, dir);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)));
+            try{
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(features.getNumFrames());
+                out.writeInt(features.getDimension());
+                double data[] = features.getData();
+                for (int t = 0; t < features.getNumFrames(); t++){
+                    int start = features.getRowStart(t);
+                    for (int k = 0; k < features.getDimension(); k++){
+                        out.writeDouble(data[start + k]);
+                    }
+                }
+            }
+            finally{
+                out.close();
+            }
+
+            // readers only ever see complete files
+            file.delete();
+            if (!tmp.renameTo(file)){
+                throw new IOException("cannot rename " + tmp);
+            }
+        }
+        catch(IOException e){
+            System.out.println("err: cannot write feature cache entry\n" + e.toString());
+            if (tmp != null){
+                tmp.delete();
+            }
+            return;
+        }
+
+        synchronized (this){
+            Long old = (Long)index.put(name, Long.valueOf(file.length()));
+            if (old != null){
+                totalBytes -= old.longValue();
+            }
+            totalBytes += file.length();
+            evict();
+        }
+    }
+    /**
+     * removes an entry<br>
+     * calls: none<br>
+     * called by: featureCache
+     */
+    private synchronized void remove(String name){
+        Long size = (Long)index.remove(name);
+        if (size != null){
+            totalBytes -= size.longValue();
+        }
+        new File(dir, name).delete();
+    }
+    /**
+     * removes least recently used entries until the cache fits in maxBytes<br>
+     * calls: none<br>
+     * called by: featureCache
+     */
+    private synchronized void evict(){
+        Iterator it = index.entrySet().iterator();
+        while (totalBytes > maxBytes && it.hasNext()){
+            Map.Entry entry = (Map.Entry)it.next();
+            totalBytes -= ((Long)entry.getValue()).longValue();
+            new File(dir, (String)entry.getKey()).delete();
+            it.remove();
+        }
+    }
+}
\ No newline at end of file
@@ -47,156 +47,308 @@ package org.oc.ocvolume.dsp;
 /**
  * last updated on June 15, 2002<br>
  * <b>description:</b> feature extraction class used to extract mel-frequency cepstral coefficients from input signal<br>
- * <b>calls:</b> none<br>
+ * <b>calls:</b> mfccPlan, realFft, dspKernels<br>
  * <b>called by:</b> volume, train<br>
  * <b>input:</b> speech signal<br>
  * <b>output:</b> mel-frequency cepstral coefficient
  * @author Danny Su
  */
-public class featureExtraction{
+public class featureExtraction implements featureExtractor{
     /**
-     * sample rate in Hz
+     * number of frames transformed together by the batched FFT
      */
-    protected final static double samplingRate = 16000.0;
+    private final static int BATCH_FRAMES = 16;
+    /**
+     * front-end configuration
+     */
+    protected final frontEndConfig config;
     /**
      * Number of samples per frame
      */
-    protected final static int frameLength = 512;
+    protected final int frameLength;
     /**
-     * Number of overlapping samples (usually 50% of frame length)
+     * Number of samples between the start of two frames
      */
-    protected final static int shiftInterval = frameLength / 2;
+    protected final int frameShift;
     /**
      * Number of MFCCs per frame
      */
-    protected final static int numCepstra = 13;
+    protected final int numCepstra;
     /**
-     * FFT Size (Must be be a power of 2)
+     * FFT Size (power of 2, at least frameLength)
      */
-    protected final static int fftSize = frameLength;
+    protected final int fftSize;
     /**
      * Pre-Emphasis Alpha (Set to 0 if no pre-emphasis should be performed)
      */
-    protected final static double preEmphasisAlpha = 0.95;
+    protected final double preEmphasisAlpha;
     /**
-     * lower limit of filter (or 64 Hz?)
+     * number of mel filters
      */
-    protected final static double lowerFilterFreq = 133.3334;
+    protected final int numMelFilters;
     /**
-     * upper limit of filter (or half of sampling freq.?)
+     * precomputed window, filterbank and cosine tables
      */
-    protected final static double upperFilterFreq = 6855.4976;
+    protected mfccPlan plan;
     /**
-     * number of mel filters (SPHINX-III uses 40)
+     * inner loops, SIMD when available
      */
-    protected final static int numMelFilters = 23;
+    protected dspKernels kernels;
     /**
-     * All the frames of the input signal
+     * Fast Fourier Transformation
      */
-    protected static double frames[][];
+    protected realFft FFT;
     /**
-     * hamming window values
+     * real part of the spectrum of the current frame
      */
-    protected static double hammingWindow[];
+    private double spectrumReal[];
     /**
-     * Fast Fourier Transformation
+     * imaginary part of the spectrum of the current frame
+     */
+    private double spectrumImag[];
+    /**
+     * magnitude spectrum of the current frame (fftSize / 2 + 1 bins), reused for every frame
+     */
+    protected double magSpectrum[];
+    /**
+     * frames of the current batch after pre-emphasis and Hamming Window, the input of the batched FFT
+     */
+    private double batchFrames[][];
+    /**
+     * real part of the spectra of the current batch, bin k of frame l at k * (frames in the batch) + l
+     */
+    private double batchReal[];
+    /**
+     * imaginary part of the spectra of the current batch
+     */
+    private double batchImag[];
+    /**
+     * magnitude spectra of the current batch
+     */
+    private double batchMag[];
+    /**
+     * mel filterbank output of the current frame
      */
-    protected static fft FFT;
+    private double fbank[];
+    /**
+     * natural log of the mel filterbank output of the current frame
+     */
+    private double logFbank[];
+    /**
+     * cepstral coefficients of the current frame
+     */
+    private double cepc[];
+    /**
+     * constructor to create a feature extractor with its own FFT and scratch buffers<br>
+     * an extractor is not thread-safe, each thread should use its own instance<br>
+     * calls: realFft, mfccPlan<br>
+     * called by: volume, train
+     */
+    public featureExtraction(){
+        this(mfccPlan.getDefault());
+    }
+    /**
+     * constructor to create a feature extractor for a front-end configuration<br>
+     * the tables of the configuration are cached and shared with all other extractors using it<br>
+     * calls: mfccPlan<br>
+     * called by: volume
+     * @param config front-end configuration
+     */
+    public featureExtraction(frontEndConfig config){
+        this(mfccPlan.forConfig(config));
+    }
+    /**
+     * constructor to create a feature extractor that uses the given precomputed tables<br>
+     * calls: realFft<br>
+     * called by: featureExtraction
+     * @param plan precomputed tables, may be shared with other extractors
+     */
+    public featureExtraction(mfccPlan plan){
+        this.plan = plan;
+        config = plan.config;
+        frameLength = config.frameLength;
+        frameShift = config.frameShift;
+        numCepstra = config.numCepstra;
+        fftSize = config.fftSize;
+        preEmphasisAlpha = config.preEmphasisAlpha;
+        numMelFilters = config.numMelFilters;
+
+        kernels = dspKernels.getInstance();
+        FFT = new realFft(fftSize);
+        spectrumReal = new double[plan.numBins];
+        spectrumImag = new double[plan.numBins];
+        magSpectrum = new double[plan.numBins];
+        // samples between frameLength and fftSize stay zero
+        batchFrames = new double[BATCH_FRAMES][fftSize];
+        batchReal = new double[BATCH_FRAMES * plan.numBins];
+        batchImag = new double[BATCH_FRAMES * plan.numBins];
+        batchMag = new double[BATCH_FRAMES * plan.numBins];
+        fbank = new double[numMelFilters];
+        logFbank = new double[numMelFilters];
+        cepc = new double[numCepstra];
+    }
     /**
      * takes a speech signal and returns the Mel-Frequency Cepstral Coefficient (MFCC)<br>
-     * calls: fft<br>
+     * uses a new extractor for every call, so it is safe to call from several threads, long signals are
+     * computed in parallel. The extractor is the one of frontEndConfig.newExtractor, so the fixed point front-end is
+     * used for short and long signals when it is selected<br>
+     * calls: frontEndConfig, parallelExtraction<br>
      * called by: volume, train
      * @param inputSignal Speech Waveform (16 bit integer data)
      * @return Mel Frequency Cepstral Coefficients (32 bit floating point data)
      */
     public static double[][] process(short inputSignal[]){
-        double MFCC[][];
-
-        // Pre-Emphasis
-        double outputSignal[] = preEmphasis(inputSignal);
-        
-        // Frame Blocking
-        framing(outputSignal);
+        if (frontEndConfig.DEFAULT.numFrames(inputSignal.length) >= parallelExtraction.MIN_PARALLEL_FRAMES){
+            // long recordings are split over all processors
+            return parallelExtraction.getDefault().extract(inputSignal);
+        }
+        return frontEndConfig.DEFAULT.newExtractor().extract(inputSignal);
+    }
+    /**
+     * takes a speech signal and returns the Mel-Frequency Cepstral Coefficient (MFCC)<br>
+     * calls: realFft<br>
+     * called by: volume, train
+     * @param inputSignal Speech Waveform (16 bit integer data)
+     * @return Mel Frequency Cepstral Coefficients (32 bit floating point data)
+     */
+    public double[][] extract(short inputSignal[]){
+        return extractMatrix(inputSignal).toArray();
+    }
+    /**
+     * takes a speech signal and returns the Mel-Frequency Cepstral Coefficient (MFCC) as a feature matrix<br>
+     * the frames are built one at a time in a reusable buffer, only the returned matrix is allocated<br>
+     * calls: realFft<br>
+     * called by: volume, train
+     * @param inputSignal Speech Waveform (16 bit integer data)
+     * @return Mel Frequency Cepstral Coefficients, numCepstra values per frame
+     */
+    public featureMatrix extractMatrix(short inputSignal[]){
+        // Initializes the MFCC matrix, this is the only allocation
+        featureMatrix MFCC = new featureMatrix(config.numFrames(inputSignal.length), numCepstra);
+        extractFrames(inputSignal, MFCC, 0, MFCC.getNumFrames());
+        return MFCC;
+    }
+    /**
+     * computes the MFCC of a range of frames into a matrix that already has one row per frame of the signal<br>
+     * each frame reads the sample before its start for pre-emphasis, so ranges can be computed independently<br>
+     * calls: realFft<br>
+     * called by: featureExtraction, parallelExtraction
+     * @param inputSignal Speech Waveform (16 bit integer data)
+     * @param MFCC receives the coefficients, numCepstra values per frame
+     * @param firstFrame index of the first frame to compute
+     * @param endFrame index after the last frame to compute
+     */
+    void extractFrames(short inputSignal[], featureMatrix MFCC, int firstFrame, int endFrame){
+        final int hop = frameShift;
+        final double w[] = plan.window;
+        final int length = inputSignal.length;
+        final int numBins = plan.numBins;
+        double out[] = MFCC.getData();
 
-        // Initializes the MFCC array
-        MFCC = new double[frames.length][numCepstra];
+        for (int batchStart = firstFrame; batchStart < endFrame; batchStart += BATCH_FRAMES){
+            int count = Math.min(BATCH_FRAMES, endFrame - batchStart);
 
-        // apply Hamming Window to ALL frames
-        hammingWindow();
-        
-        //
-        // Below computations are all based on individual frames with Hamming Window already applied to them
-        //
-        for (int k = 0; k < frames.length; k++){
-            FFT = new fft();
-            
-            // Magnitude Spectrum
-            double bin[] = magnitudeSpectrum(frames[k]);
+            //
+            // Pre-Emphasis, Frame Blocking and Hamming Window are done in one pass, directly into the FFT input
+            //
+            for (int l = 0; l < count; l++){
+                int start = (batchStart + l) * hop;
 
-            // Mel Filtering
-            int cbin[] = fftBinIndices();
-            // get Mel Filterbank
-            double fbank[] = melFilter(bin, cbin);
+                // the first sample has no predecessor and samples after the end are zero padding
+                int from = Math.max(0, 1 - start);
+                int to = Math.min(frameLength, length - start);
 
-            // Non-linear transformation
-            double f[] = nonLinearTransformation(fbank);
+                double frame[] = batchFrames[l];
+                for (int n = 0; n < from; n++){
+                    frame[n] = 0;
+                }
+                kernels.preEmphasisWindow(inputSignal, start, preEmphasisAlpha, w, frame, from, to);
+                for (int n = Math.max(from, to); n < frameLength; n++){
+                    frame[n] = 0;
+                }
+            }
 
-            // Cepstral coefficients
-            double cepc[] = cepCoefficients(f);
+            // Magnitude Spectrum of all frames of the batch, in structure of arrays layout
+            FFT.transformBatch(batchFrames, count, batchReal, batchImag);
+            kernels.magnitude(batchReal, batchImag, batchMag, numBins * count);
 
-            // Add resulting MFCC to array
-            for (int i = 0; i < numCepstra; i++){
-                MFCC[k][i] = cepc[i];
+            for (int l = 0; l < count; l++){
+                for (int k = 0; k < numBins; k++){
+                    magSpectrum[k] = batchMag[k * count + l];
+                }
+                spectrumCepstra(magSpectrum, out, MFCC.getRowStart(batchStart + l));
             }
         }
-
-        return MFCC;
     }
     /**
-     * calculates the FFT bin indices<br>
+     * calculates the number of frames for a signal with the default configuration<br>
+     * calls: frontEndConfig<br>
+     * called by: none
+     * @param length number of samples in the signal
+     * @return number of frames (at least one)
+     */
+    public static int numFrames(long length){
+        return frontEndConfig.DEFAULT.numFrames(length);
+    }
+    /**
+     * get the front-end configuration of this extractor<br>
+     * calls: none<br>
+     * called by: volume
+     * @return front-end configuration
+     */
+    public frontEndConfig getConfig(){
+        return config;
+    }
+    /**
+     * computes the MFCC of a single frame that already has the Hamming Window applied to it<br>
+     * calls: realFft<br>
+     * called by: featureExtraction, featureStream
+     * @param frame windowed frame (frameLength samples)
+     * @param mfcc receives the numCepstra coefficients of the frame
+     * @param offset index in mfcc of the first coefficient
+     */
+    void frameCepstra(double frame[], double mfcc[], int offset){
+        // Magnitude Spectrum
+        spectrumCepstra(magnitudeSpectrum(frame), mfcc, offset);
+    }
+    /**
+     * computes the MFCC of a single frame from its magnitude spectrum<br>
      * calls: none<br>
      * called by: featureExtraction
-     * @return array of FFT bin indices
+     * @param bin magnitude spectrum (fftSize / 2 + 1 bins)
+     * @param mfcc receives the numCepstra coefficients of the frame
+     * @param offset index in mfcc of the first coefficient
      */
-    private static int[] fftBinIndices(){
-        int cbin[] = new int[numMelFilters + 2];
-        
-        cbin[0] = (int)Math.round(lowerFilterFreq / samplingRate * fftSize);
-        cbin[cbin.length - 1] = (int)(fftSize / 2);
-        
-        for (int i = 1; i <= numMelFilters; i++){
-            double fc = centerFreq(i);
+    private void spectrumCepstra(double bin[], double mfcc[], int offset){
+        // get Mel Filterbank
+        double fbank[] = melFilter(bin);
 
-            cbin[i] = (int)Math.round(fc / samplingRate * fftSize);
+        // Non-linear transformation
+        double f[] = nonLinearTransformation(fbank);
+
+        // Cepstral coefficients
+        double cepc[] = cepCoefficients(f);
+
+        // Add resulting MFCC to array
+        for (int i = 0; i < numCepstra; i++){
+            mfcc[offset + i] = cepc[i];
         }
-        
-        return cbin;
     }
     /**
      * Calculate the output of the mel filter<br>
      * calls: none
      * called by: featureExtraction
+     * @param bin Magnitude spectrum
+     * @return Mel filterbank output
      */
-    private static double[] melFilter(double bin[], int cbin[]){
-        double temp[] = new double[numMelFilters + 2];
-
-        for (int k = 1; k <= numMelFilters; k++){
-            double num1 = 0, num2 = 0;
-
-            for (int i = cbin[k - 1]; i <= cbin[k]; i++){
-                num1 += ((i - cbin[k - 1] + 1) / (cbin[k] - cbin[k-1] + 1)) * bin[i];
-            }
-
-            for (int i = cbin[k] + 1; i <= cbin[k + 1]; i++){
-                num2 += (1 - ((i - cbin[k]) / (cbin[k + 1] - cbin[k] + 1))) * bin[i];
-            }
-
-            temp[k] = num1 + num2;
-        }
+    private double[] melFilter(double bin[]){
+        final double w[] = plan.filterWeights;
+        final int start[] = plan.filterStart;
+        final int length[] = plan.filterLength;
+        final int offset[] = plan.filterOffset;
 
-        double fbank[] = new double[numMelFilters];
-        for (int i = 0; i < numMelFilters; i++){
-            fbank[i] = temp[i + 1];
+        for (int k = 0; k < numMelFilters; k++){
+            fbank[k] = kernels.dot(w, offset[k], bin, start[k], length[k]);
         }
 
         return fbank;
@@ -208,13 +360,11 @@ public class featureExtraction{
      * @param f Output of the Non-linear Transformation method
      * @return Cepstral Coefficients
      */
-    private static double[] cepCoefficients(double f[]){
-        double cepc[] = new double[numCepstra];
-        
+    private double[] cepCoefficients(double f[]){
+        final double dct[][] = plan.dct;
+
         for (int i = 0; i < cepc.length; i++){
-            for (int j = 1; j <= numMelFilters; j++){
-                cepc[i] += f[j - 1] * Math.cos(Math.PI * i / numMelFilters * (j - 0.5));
-            }
+            cepc[i] = kernels.dot(f, 0, dct[i], 0, numMelFilters);
         }
         
         return cepc;
@@ -226,8 +376,8 @@ public class featureExtraction{
      * @param fbank Output of mel filtering
      * @return Natural log of the output of mel filtering
      */
-    private static double[] nonLinearTransformation(double fbank[]){
-        double f[] = new double[fbank.length];
+    private double[] nonLinearTransformation(double fbank[]){
+        double f[] = logFbank;
         final double FLOOR = -50;
         
         for (int i = 0; i < fbank.length; i++){
@@ -249,35 +399,10 @@ public class featureExtraction{
     protected static double log10(double value){
         return Math.log(value) / Math.log(10);
     }
-    /**
-     * calculates center frequency<br>
-     * calls: none<br>
-     * called by: featureExtraction
-     * @param i Index of mel filters
-     * @return Center Frequency
-     */
-    private static double centerFreq(int i){
-        double mel[] = new double[2];
-        mel[0] = freqToMel(lowerFilterFreq);
-        mel[1] = freqToMel(samplingRate / 2);
-        
-        // take inverse mel of:
-        double temp = mel[0] + ((mel[1] - mel[0]) / (numMelFilters + 1)) * i;
-        return inverseMel(temp);
-    }
-    /**
-     * calculates the inverse of Mel Frequency<br>
-     * calls: none<br>
-     * called by: featureExtraction
-     */
-    private static double inverseMel(double x){
-        double temp = Math.pow(10, x / 2595) - 1;
-        return 700 * (temp);
-    }
     /**
      * convert frequency to mel-frequency<br>
      * calls: none<br>
-     * called by: featureExtraction
+     * called by: mfccPlan
      * @param freq Frequency
      * @return Mel-Frequency
      */
@@ -285,77 +410,26 @@ public class featureExtraction{
         return 2595 * log10(1 + freq / 700);
     }
     /**
-     * computes the magnitude spectrum of the input frame<br>
-     * calls: none<br>
+     * computes the magnitude spectrum of the input frame, only the fftSize / 2 + 1 unique bins are computed<br>
+     * calls: realFft<br>
      * called by: featureExtraction
      * @param frame Input frame signal
      * @return Magnitude Spectrum array
      */
-    protected static double[] magnitudeSpectrum(double frame[]){
-        double magSpectrum[] = new double[frame.length];
-        
+    protected double[] magnitudeSpectrum(double frame[]){
         // calculate FFT for current frame
-        FFT.computeFFT( frame );
+        FFT.transform(frame, spectrumReal, spectrumImag);
         
         // calculate magnitude spectrum
-        for (int k = 0; k < frame.length; k++){
-            magSpectrum[k] = Math.pow(FFT.real[k] * FFT.real[k] + FFT.imag[k] * FFT.imag[k], 0.5);
-        }
+        kernels.magnitude(spectrumReal, spectrumImag, magSpectrum, magSpectrum.length);
 
         return magSpectrum;
     }
     /**
-     * performs Hamming Window<br>
-     * calls: none<br>
-     * called by: featureExtraction
-     * @param frame A frame
-     * @return Processed frame with hamming window applied to it
-     */
-    private static void hammingWindow(){
-        double w[] = new double[frameLength];
-        for (int n = 0; n < frameLength; n++){
-            w[n] = 0.54 - 0.46 * Math.cos( (2 * Math.PI * n) / (frameLength - 1) );
-        }
-
-        for (int m = 0; m < frames.length; m++){
-            for (int n = 0; n < frameLength; n++){
-                frames[m][n] *= w[n];
-            }
-        }
-    }
-    /**
-     * performs Frame Blocking to break down a speech signal into frames<br>
+     * perform pre-emphasis to equalize amplitude of high and low frequency, with the default alpha<br>
+     * extract() applies the same filter while framing, this is kept for callers that need the whole signal<br>
      * calls: none<br>
-     * called by: featureExtraction
-     * @param inputSignal Speech Signal (16 bit integer data)
-     */
-    protected static void framing(double inputSignal[]){
-        double numFrames = (double)inputSignal.length / (double)(frameLength - shiftInterval);
-        
-        // unconditionally round up
-        if ((numFrames / (int)numFrames) != 1){
-            numFrames = (int)numFrames + 1;
-        }
-        
-        // use zero padding to fill up frames with not enough samples
-        double paddedSignal[] = new double[(int)numFrames * frameLength];
-        for (int n = 0; n < inputSignal.length; n++){
-            paddedSignal[n] = inputSignal[n];
-        }
-
-        frames = new double[(int)numFrames][frameLength];
-
-        // break down speech signal into frames with specified shift interval to create overlap
-        for (int m = 0; m < numFrames; m++){
-            for (int n = 0; n < frameLength; n++){
-                frames[m][n] = paddedSignal[m * (frameLength - shiftInterval) + n];
-            }
-        }
-    }
-    /**
-     * perform pre-emphasis to equalize amplitude of high and low frequency<br>
-     * calls: none<br>
-     * called by: featureExtraction
+     * called by: none
      * @param inputSignal Speech Signal (16 bit integer data)
      * @return Speech signal after pre-emphasis (16 bit integer data)
      */
@@ -364,7 +438,7 @@ public class featureExtraction{
         
         // apply pre-emphasis to each sample
         for (int n = 1; n < inputSignal.length; n++){
-            outputSignal[n] = inputSignal[n] - preEmphasisAlpha * inputSignal[n - 1];
+            outputSignal[n] = inputSignal[n] - frontEndConfig.DEFAULT.preEmphasisAlpha * inputSignal[n - 1];
         }
         
         return outputSignal;
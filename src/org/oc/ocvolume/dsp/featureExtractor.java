@@ -0,0 +1,75 @@
+/*
+OC Volume - Java Speech Recognition Engine
+Copyright (c) 2002-2004, OrangeCow organization
+All rights reserved.
+
+Redistribution and use in source and binary forms,
+with or without modification, are permitted provided
+that the following conditions are met:
+
+* Redistributions of source code must retain the
+  above copyright notice, this list of conditions
+  and the following disclaimer.
+* Redistributions in binary form must reproduce the
+  above copyright notice, this list of conditions
+  and the following disclaimer in the documentation
+  and/or other materials provided with the
+  distribution.
+* Neither the name of the OrangeCow organization
+  nor the names of its contributors may be used to
+  endorse or promote products derived from this
+  software without specific prior written
+  permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS
+AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF
+THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+POSSIBILITY OF SUCH DAMAGE.
+
+Contact information:
+Please visit http://ocvolume.sourceforge.net.
+*/
+
+package org.oc.ocvolume.dsp;
+
+/**
+ * <b>description:</b> front-end that turns a speech signal into mel-frequency cepstral coefficients. All
+ * implementations give the same kind of features for a configuration, so the same codebooks and models can be
+ * used with any of them. An extractor keeps scratch buffers, each thread should use its own instance.<br>
+ * <b>calls:</b> none<br>
+ * <b>called by:</b> volume, train, batchExtraction, featureCache<br>
+ * <b>input:</b> speech signal<br>
+ * <b>output:</b> mel-frequency cepstral coefficient
+ * @author Danny Su
+ */
+public interface featureExtractor{
+    /**
+     * takes a speech signal and returns the Mel-Frequency Cepstral Coefficient (MFCC)<br>
+     * @param inputSignal Speech Waveform (16 bit integer data)
+     * @return Mel Frequency Cepstral Coefficients
+     */
+    public double[][] extract(short inputSignal[]);
+    /**
+     * takes a speech signal and returns the Mel-Frequency Cepstral Coefficient (MFCC) as a feature matrix<br>
+     * @param inputSignal Speech Waveform (16 bit integer data)
+     * @return Mel Frequency Cepstral Coefficients, numCepstra values per frame
+     */
+    public featureMatrix extractMatrix(short inputSignal[]);
+    /**
+     * get the front-end configuration of this extractor<br>
+     * @return front-end configuration
+     */
+    public frontEndConfig getConfig();
+}
\ No newline at end of file
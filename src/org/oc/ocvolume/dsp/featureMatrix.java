@@ -0,0 +1,194 @@
+/*
+OC Volume - Java Speech Recognition Engine
+Copyright (c) 2002-2004, OrangeCow organization
+All rights reserved.
+
+Redistribution and use in source and binary forms,
+with or without modification, are permitted provided
+that the following conditions are met:
+
+* Redistributions of source code must retain the
+  above copyright notice, this list of conditions
+  and the following disclaimer.
+* Redistributions in binary form must reproduce the
+  above copyright notice, this list of conditions
+  and the following disclaimer in the documentation
+  and/or other materials provided with the
+  distribution.
+* Neither the name of the OrangeCow organization
+  nor the names of its contributors may be used to
+  endorse or promote products derived from this
+  software without specific prior written
+  permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS
+AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF
+THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+POSSIBILITY OF SUCH DAMAGE.
+
+Contact information:
+Please visit http://ocvolume.sourceforge.net.
+*/
+
+package org.oc.ocvolume.dsp;
+
+/**
+ * <b>description:</b> matrix of feature vectors stored in one contiguous array, one row per frame.
+ * A matrix can be a view on some of the columns of another matrix (e.g. MFCCs without c0) without copying
+ * any data.<br>
+ * <b>calls:</b> none<br>
+ * <b>called by:</b> featureExtraction, codebook, volume<br>
+ * <b>input:</b> feature vectors<br>
+ * <b>output:</b> feature vectors
+ * @author Danny Su
+ */
+public class featureMatrix{
+    /**
+     * all values, row-major
+     */
+    protected double data[];
+    /**
+     * number of frames (rows)
+     */
+    protected int numFrames;
+    /**
+     * number of values between the start of two rows
+     */
+    protected int stride;
+    /**
+     * index of the first column used in each row
+     */
+    protected int columnOffset;
+    /**
+     * number of columns used in each row
+     */
+    protected int dimension;
+    /**
+     * constructor to create an empty matrix<br>
+     * calls: none<br>
+     * called by: featureExtraction
+     * @param numFrames number of frames
+     * @param dimension number of values per frame
+     */
+    public featureMatrix(int numFrames, int dimension){
+        this(new double[numFrames * dimension], numFrames, dimension, 0, dimension);
+    }
+    /**
+     * constructor to wrap existing data<br>
+     * calls: none<br>
+     * called by: featureMatrix
+     * @param data values, row-major
+     * @param numFrames number of frames
+     * @param stride number of values between the start of two rows
+     * @param columnOffset index of the first column used in each row
+     * @param dimension number of columns used in each row
+     */
+    public featureMatrix(double data[], int numFrames, int stride, int columnOffset, int dimension){
+        if (columnOffset < 0 || dimension < 0 || columnOffset + dimension > stride || numFrames * stride > data.length){
+            throw new IllegalArgumentException("columns " + columnOffset + " to " + (columnOffset + dimension) + " do not fit in rows of " + stride + " values");
+        }
+        this.data = data;
+        this.numFrames = numFrames;
+        this.stride = stride;
+        this.columnOffset = columnOffset;
+        this.dimension = dimension;
+    }
+    /**
+     * returns a view on some of the columns of this matrix, the data is shared<br>
+     * calls: none<br>
+     * called by: volume, train
+     * @param offset first column of the view, relative to this matrix
+     * @param d number of columns of the view
+     * @return matrix sharing the data of this matrix
+     */
+    public featureMatrix columns(int offset, int d){
+        if (offset < 0 || offset + d > dimension){
+            throw new IllegalArgumentException("columns " + offset + " to " + (offset + d) + " out of range, dimension is " + dimension);
+        }
+        return new featureMatrix(data, numFrames, stride, columnOffset + offset, d);
+    }
+    /**
+     * get the number of frames<br>
+     * calls: none<br>
+     * called by: codebook
+     * @return number of frames
+     */
+    public int getNumFrames(){
+        return numFrames;
+    }
+    /**
+     * get the number of values per frame<br>
+     * calls: none<br>
+     * called by: codebook
+     * @return dimension
+     */
+    public int getDimension(){
+        return dimension;
+    }
+    /**
+     * get the backing array, frame t starts at getRowStart(t)<br>
+     * calls: none<br>
+     * called by: codebook
+     * @return all values, row-major
+     */
+    public double[] getData(){
+        return data;
+    }
+    /**
+     * get the index in the backing array of the first used value of a frame<br>
+     * calls: none<br>
+     * called by: codebook
+     * @param frame frame index
+     * @return index in getData()
+     */
+    public int getRowStart(int frame){
+        return frame * stride + columnOffset;
+    }
+    /**
+     * get a single value<br>
+     * calls: none<br>
+     * called by: codebook
+     * @param frame frame index
+     * @param k column index
+     * @return value
+     */
+    public double get(int frame, int k){
+        return data[frame * stride + columnOffset + k];
+    }
+    /**
+     * set a single value<br>
+     * calls: none<br>
+     * called by: featureExtraction
+     * @param frame frame index
+     * @param k column index
+     * @param value new value
+     */
+    public void set(int frame, int k, double value){
+        data[frame * stride + columnOffset + k] = value;
+    }
+    /**
+     * copies the used columns into a two-dimensional array<br>
+     * calls: none<br>
+     * called by: train
+     * @return one array per frame
+     */
+    public double[][] toArray(){
+        double out[][] = new double[numFrames][dimension];
+        for (int t = 0; t < numFrames; t++){
+            System.arraycopy(data, t * stride + columnOffset, out[t], 0, dimension);
+        }
+        return out;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,248 @@
+/*
+OC Volume - Java Speech Recognition Engine
+Copyright (c) 2002-2004, OrangeCow organization
+All rights reserved.
+
+Redistribution and use in source and binary forms,
+with or without modification, are permitted provided
+that the following conditions are met:
+
+* Redistributions of source code must retain the
+  above copyright notice, this list of conditions
+  and the following disclaimer.
+* Redistributions in binary form must reproduce the
+  above copyright notice, this list of conditions
+  and the following disclaimer in the documentation
+  and/or other materials provided with the
+  distribution.
+* Neither the name of the OrangeCow organization
+  nor the names of its contributors may be used to
+  endorse or promote products derived from this
+  software without specific prior written
+  permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS
+AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF
+THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+POSSIBILITY OF SUCH DAMAGE.
+
+Contact information:
+Please visit http://ocvolume.sourceforge.net.
+*/
+
+package org.oc.ocvolume.dsp;
+
+/**
+ * <b>description:</b> incremental feature extraction. Audio is pushed in chunks of any length and the
+ * mel-frequency cepstral coefficients of a frame are returned as soon as the frame is filled. Pre-emphasis state
+ * and the overlap between frames are kept across calls. The frames returned by push() and finish() together are
+ * the same as featureExtraction.process() of the whole signal.<br>
+ * <b>calls:</b> featureExtraction<br>
+ * <b>called by:</b> volume<br>
+ * <b>input:</b> chunks of speech signal<br>
+ * <b>output:</b> mel-frequency cepstral coefficient
+ * @author Danny Su
+ */
+public class featureStream{
+    /**
+     * extractor used to compute the coefficients of each frame
+     */
+    private featureExtraction extractor;
+    /**
+     * front-end configuration
+     */
+    private frontEndConfig config;
+    /**
+     * hamming window values
+     */
+    private double window[];
+    /**
+     * inner loops, SIMD when available
+     */
+    private dspKernels kernels = dspKernels.getInstance();
+    /**
+     * pre-emphasized samples of the frame being filled
+     */
+    private double buffer[];
+    /**
+     * windowed copy of the current frame
+     */
+    private double frame[];
+    /**
+     * number of samples in buffer
+     */
+    private int filled = 0;
+    /**
+     * number of samples between the start of two frames
+     */
+    private int hop;
+    /**
+     * previous input sample, used by pre-emphasis
+     */
+    private short lastSample = 0;
+    /**
+     * total number of samples pushed since the last reset
+     */
+    private long numSamples = 0;
+    /**
+     * total number of frames returned since the last reset
+     */
+    private long numFrames = 0;
+    /**
+     * constructor to create a stream with the default front-end tables<br>
+     * calls: mfccPlan<br>
+     * called by: volume
+     */
+    public featureStream(){
+        this(mfccPlan.getDefault());
+    }
+    /**
+     * constructor to create a stream that uses the given precomputed tables<br>
+     * calls: featureExtraction<br>
+     * called by: featureStream
+     * @param plan precomputed tables, may be shared with other extractors
+     */
+    public featureStream(mfccPlan plan){
+        extractor = new featureExtraction(plan);
+        config = plan.config;
+        window = plan.window;
+        hop = config.frameShift;
+        buffer = new double[config.frameLength];
+        // samples between frameLength and fftSize stay zero
+        frame = new double[config.fftSize];
+    }
+    /**
+     * constructor to create a stream for a front-end configuration<br>
+     * calls: mfccPlan<br>
+     * called by: volume
+     * @param config front-end configuration
+     */
+    public featureStream(frontEndConfig config){
+        this(mfccPlan.forConfig(config));
+    }
+    /**
+     * adds samples to the stream<br>
+     * calls: featureExtraction<br>
+     * called by: volume
+     * @param chunk speech signal (16 bit integer data)
+     * @return coefficients of the frames completed by this chunk, may be empty
+     */
+    public double[][] push(short chunk[]){
+        return push(chunk, chunk.length);
+    }
+    /**
+     * adds samples to the stream<br>
+     * calls: featureExtraction<br>
+     * called by: volume
+     * @param chunk speech signal (16 bit integer data)
+     * @param length number of samples of chunk to use
+     * @return coefficients of the frames completed by this chunk, may be empty
+     */
+    public double[][] push(short chunk[], int length){
+        final int frameLength = config.frameLength;
+
+        // number of frames completed by this chunk
+        int available = filled + length;
+        int count = 0;
+        if (available >= frameLength){
+            count = (available - frameLength) / hop + 1;
+        }
+        double MFCC[][] = new double[count][config.numCepstra];
+        int ctr = 0;
+
+        for (int n = 0; n < length; n++){
+            short sample = chunk[n];
+
+            // pre-emphasis, the very first sample of the stream is set to 0 like in featureExtraction
+            if (numSamples == 0){
+                buffer[filled] = 0;
+            }
+            else{
+                buffer[filled] = sample - config.preEmphasisAlpha * lastSample;
+            }
+            lastSample = sample;
+            numSamples++;
+            filled++;
+
+            if (filled == frameLength){
+                emitFrame(MFCC[ctr]);
+                ctr++;
+            }
+        }
+
+        return MFCC;
+    }
+    /**
+     * ends the stream and returns the remaining frames, which are padded with zeros<br>
+     * the stream is reset afterwards and can be used for the next utterance<br>
+     * calls: featureExtraction<br>
+     * called by: volume
+     * @return coefficients of the remaining frames
+     */
+    public double[][] finish(){
+        // same number of frames as featureExtraction
+        long total = config.numFrames(numSamples);
+
+        double MFCC[][] = new double[(int)Math.max(0, total - numFrames)][config.numCepstra];
+
+        for (int k = 0; k < MFCC.length; k++){
+            for (int n = filled; n < buffer.length; n++){
+                buffer[n] = 0;
+            }
+            filled = buffer.length;
+            emitFrame(MFCC[k]);
+        }
+
+        reset();
+
+        return MFCC;
+    }
+    /**
+     * discards all buffered samples and starts a new stream<br>
+     * calls: none<br>
+     * called by: volume
+     */
+    public void reset(){
+        filled = 0;
+        lastSample = 0;
+        numSamples = 0;
+        numFrames = 0;
+    }
+    /**
+     * returns the number of frames returned since the last reset<br>
+     * calls: none<br>
+     * called by: volume
+     * @return number of frames
+     */
+    public long getNumFrames(){
+        return numFrames;
+    }
+    /**
+     * computes the coefficients of the full buffer and moves the buffer forward by one frame shift<br>
+     * calls: featureExtraction<br>
+     * called by: featureStream
+     * @param mfcc receives the coefficients
+     */
+    private void emitFrame(double mfcc[]){
+        kernels.multiply(buffer, window, frame, buffer.length);
+
+        extractor.frameCepstra(frame, mfcc, 0);
+        numFrames++;
+
+        // keep the overlapping part for the next frame
+        System.arraycopy(buffer, hop, buffer, 0, buffer.length - hop);
+        filled -= hop;
+    }
+}
\ No newline at end of file
@@ -49,8 +49,8 @@ package org.oc.ocvolume.dsp;
  * <b>description:</b> FFT class for real signals. Upon entry, N contains the numbers of points in the DFT, real[] and imaginary[]
  * contain the real and imaginary parts of the input. Upon return, real[] and imaginary[] contain the DFT output.
  * All signals run from 0 to N - 1<br>
- * <b>calls:</b> none<br>
- * <b>called by:</b> featureExtraction<br>
+ * <b>calls:</b> fftPlan<br>
+ * <b>called by:</b> none (featureExtraction uses realFft)<br>
  * <b>input:</b> speech signal<br>
  * <b>output:</b> real and imaginary part of DFT output
  * @author Danny Su
@@ -59,112 +59,32 @@ public class fft{
     /**
      * number of points
      */
-    protected static int numPoints;
+    protected int numPoints;
     /**
      * real part
      */
-    public static double real[];
+    public double real[];
     /**
      * imaginary part
      */
-    public static double imag[];
+    public double imag[];
     
     /**
      * performs Fast Fourier Transformation<br>
-     * calls: none<br>
+     * the input signal is not modified, the result is stored in real[] and imag[] of this instance<br>
+     * calls: fftPlan<br>
      * called by: featureExtraction
-     * @param signal  */
-    public static void computeFFT(double signal[]){
+     * @param signal input signal, the length must be a power of 2
+     */
+    public void computeFFT(double signal[]){
         numPoints = signal.length;
 
-        // initialize real & imag array
-        real = new double[numPoints];
-        imag = new double[numPoints];
-        
-        // move the N point signal into the real part of the complex DFT's time domain
-        real = signal;
-        
-        // set all of the samples in the imaginary part to zero
-        for (int i = 0; i < imag.length; i++){
-            imag[i] = 0;
+        // initialize real & imag array, they are reused as long as the size stays the same
+        if (real == null || real.length != numPoints){
+            real = new double[numPoints];
+            imag = new double[numPoints];
         }
         
-        // perform FFT using the real & imag array
-        FFT();
-    }
-    
-    /**
-     * performs Fast Fourier Transformation<br>
-     * calls: none<br>
-     * called by: fft
-     */
-    private static void FFT(){
-        if (numPoints == 1) return;
-
-        final double pi = Math.PI;
-        final int numStages = (int)(Math.log(numPoints) / Math.log(2));
-        
-        int halfNumPoints = numPoints >> 1;
-        int j = halfNumPoints;
-        
-        // FFT time domain decomposition carried out by "bit reversal sorting" algorithm
-        int k = 0;
-        for (int i = 1; i < numPoints - 2; i++){
-            if (i < j){
-                // swap
-                double tempReal = real[j];
-                double tempImag = imag[j];
-                real[j] = real[i];
-                imag[j] = imag[i];
-                real[i] = tempReal;
-                imag[i] = tempImag;
-            }
-            
-            k = halfNumPoints;
-            
-            while ( k <= j ){
-                j -= k;
-                k >>=1;
-            }
-            
-            j += k;
-        }
-
-        // loop for each stage
-        for (int stage = 1; stage <= numStages; stage++){
-
-            int LE = 1;
-            for (int i = 0; i < stage; i++)
-                LE <<= 1;
-
-            int LE2 = LE >> 1;
-            double UR = 1;
-            double UI = 0;
-            
-            // calculate sine & cosine values
-            double SR = Math.cos( pi / LE2 );
-            double SI = -Math.sin( pi / LE2 );
-            
-            // loop for each sub DFT
-            for (int subDFT = 1; subDFT <= LE2; subDFT++){
-                
-                // loop for each butterfly
-                for (int butterfly = subDFT - 1; butterfly <= numPoints - 1; butterfly+=LE){
-                    int ip = butterfly + LE2;
-                    
-                    // butterfly calculation
-                    double tempReal = real[ip] * UR - imag[ip] * UI;
-                    double tempImag = real[ip] * UI + imag[ip] * UR;
-                    real[ip] = real[butterfly] - tempReal;
-                    imag[ip] = imag[butterfly] - tempImag;
-                    real[butterfly] += tempReal;
-                    imag[butterfly] += tempImag;
-                }
-                
-                double tempUR = UR;
-                UR = tempUR * SR - UI * SI;
-                UI = tempUR * SI + UI * SR;
-            }
-        }
+        fftPlan.forSize(numPoints).transform(signal, real, imag);
     }
 }
\ No newline at end of file
@@ -0,0 +1,256 @@
+/*
+OC Volume - Java Speech Recognition Engine
+Copyright (c) 2002-2004, OrangeCow organization
+All rights reserved.
+
+Redistribution and use in source and binary forms,
+with or without modification, are permitted provided
+that the following conditions are met:
+
+* Redistributions of source code must retain the
+  above copyright notice, this list of conditions
+  and the following disclaimer.
+* Redistributions in binary form must reproduce the
+  above copyright notice, this list of conditions
+  and the following disclaimer in the documentation
+  and/or other materials provided with the
+  distribution.
+* Neither the name of the OrangeCow organization
+  nor the names of its contributors may be used to
+  endorse or promote products derived from this
+  software without specific prior written
+  permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS
+AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF
+THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+POSSIBILITY OF SUCH DAMAGE.
+
+Contact information:
+Please visit http://ocvolume.sourceforge.net.
+*/
+
+package org.oc.ocvolume.dsp;
+
+import java.util.Hashtable;
+
+/**
+ * <b>description:</b> complex FFT implementation used by realFft. Every backend transforms one or several
+ * interleaved signals in place (point n of signal l at n * lanes + l), input and output in natural order.<br>
+ * The backend of each size is chosen once. The system property <code>org.oc.ocvolume.fft</code> selects one by
+ * name (e.g. <code>radix2</code> or <code>radix4</code>); without it, or with <code>auto</code>, the fastest
+ * backend on this machine is chosen by a short benchmark. A backend is only used if its results agree with the
+ * radix-2 transform. New backends only have to be added to getAll.<br>
+ * <b>calls:</b> radix2Fft, radix4Fft<br>
+ * <b>called by:</b> realFft<br>
+ * <b>input:</b> complex signals<br>
+ * <b>output:</b> DFT of the signals
+ * @author Danny Su
+ */
+public abstract class fftBackend{
+    /**
+     * relative tolerance allowed between a backend and the radix-2 transform
+     */
+    protected final static double TOLERANCE = 1e-9;
+    /**
+     * number of interleaved signals used by the benchmark, the batch size of featureExtraction
+     */
+    private final static int BENCHMARK_LANES = 16;
+    /**
+     * backends chosen so far, keyed by number of points
+     */
+    private static Hashtable cache = new Hashtable();
+    /**
+     * number of points
+     */
+    protected final int numPoints;
+    /**
+     * constructor<br>
+     * calls: none<br>
+     * called by: radix2Fft, radix4Fft
+     * @param n number of points (must be a power of 2)
+     */
+    protected fftBackend(int n){
+        if (n < 1 || (n & (n - 1)) != 0){
+            throw new IllegalArgumentException("FFT size must be a power of 2: " + n);
+        }
+        numPoints = n;
+    }
+    /**
+     * returns the backend chosen for a size, the choice is made once per size<br>
+     * calls: fftBackend<br>
+     * called by: realFft
+     * @param n number of points (must be a power of 2)
+     * @return backend shared by all users of the size
+     */
+    public static fftBackend forSize(int n){
+        Integer key = Integer.valueOf(n);
+        synchronized (cache){
+            fftBackend backend = (fftBackend)cache.get(key);
+            if (backend == null){
+                backend = select(n);
+                cache.put(key, backend);
+            }
+            return backend;
+        }
+    }
+    /**
+     * returns one instance of every backend, the radix-2 transform first<br>
+     * calls: radix2Fft, radix4Fft<br>
+     * called by: fftBackend
+     * @param n number of points (must be a power of 2)
+     * @return all backends
+     */
+    public static fftBackend[] getAll(int n){
+        return new fftBackend[]{ new radix2Fft(n), new radix4Fft(n) };
+    }
+    /**
+     * name of the implementation<br>
+     * calls: none<br>
+     * called by: fftBackend
+     * @return name
+     */
+    public abstract String getName();
+    /**
+     * returns the number of points<br>
+     * calls: none<br>
+     * called by: realFft
+     * @return number of points
+     */
+    public int getSize(){
+        return numPoints;
+    }
+    /**
+     * performs the Fast Fourier Transformation of interleaved complex signals in place<br>
+     * a backend never changes after it is created, so several threads may use it on their own arrays<br>
+     * calls: none<br>
+     * called by: realFft
+     * @param re real parts, point n of signal l at n * lanes + l, replaced by the DFT
+     * @param im imaginary parts, point n of signal l at n * lanes + l, replaced by the DFT
+     * @param lanes number of signals
+     */
+    public abstract void transform(double re[], double im[], int lanes);
+    /**
+     * chooses the backend of a size<br>
+     * calls: none<br>
+     * called by: fftBackend
+     */
+    private static fftBackend select(int n){
+        fftBackend all[] = getAll(n);
+        fftBackend reference = all[0];
+        String wanted = System.getProperty("org.oc.ocvolume.fft", "auto");
+
+        fftBackend best = reference;
+        long bestTime = Long.MAX_VALUE;
+        for (int i = 0; i < all.length; i++){
+            boolean named = all[i].getName().equals(wanted);
+            if (!named && !"auto".equals(wanted)){
+                continue;
+            }
+            if (i > 0 && !agrees(all[i], reference)){
+                System.out.println("err: " + all[i].getName() + " FFT disagrees with radix-2 FFT, not used");
+                continue;
+            }
+            if (named){
+                return all[i];
+            }
+
+            long time = benchmark(all[i]);
+            if (time < bestTime){
+                bestTime = time;
+                best = all[i];
+            }
+        }
+
+        if (!"auto".equals(wanted) && !best.getName().equals(wanted)){
+            System.out.println("err: unknown FFT backend " + wanted + ", using " + best.getName());
+        }
+        return best;
+    }
+    /**
+     * measures a backend on interleaved random signals, the signals are copied in again before every transform
+     * so that every run works on the same finite values<br>
+     * calls: none<br>
+     * called by: fftBackend
+     * @return shortest time of a few runs in nanoseconds
+     */
+    private static long benchmark(fftBackend backend){
+        int size = backend.numPoints * BENCHMARK_LANES;
+        java.util.Random random = new java.util.Random(1);
+        double signalRe[] = new double[size];
+        double signalIm[] = new double[size];
+        for (int i = 0; i < size; i++){
+            signalRe[i] = random.nextGaussian();
+            signalIm[i] = random.nextGaussian();
+        }
+        double re[] = new double[size];
+        double im[] = new double[size];
+
+        // about a million butterflies per run, the first runs let the JIT compile the loops
+        int iterations = Math.max(1, (1 << 20) / size);
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run < 8; run++){
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++){
+                // every transform multiplies the values by about sqrt(numPoints), they would overflow
+                System.arraycopy(signalRe, 0, re, 0, size);
+                System.arraycopy(signalIm, 0, im, 0, size);
+                backend.transform(re, im, BENCHMARK_LANES);
+            }
+            long time = System.nanoTime() - start;
+            if (run >= 3 && time < best){
+                best = time;
+            }
+        }
+        return best;
+    }
+    /**
+     * compares a backend with the reference on random data, with one and with several interleaved signals<br>
+     * calls: none<br>
+     * called by: fftBackend
+     * @param k backend to check
+     * @param ref reference backend
+     * @return true if all results are within TOLERANCE of the largest value
+     */
+    protected static boolean agrees(fftBackend k, fftBackend ref){
+        int lanes[] = { 1, 3 };
+        java.util.Random random = new java.util.Random(12345);
+        for (int t = 0; t < lanes.length; t++){
+            int size = k.numPoints * lanes[t];
+            double re1[] = new double[size];
+            double im1[] = new double[size];
+            for (int i = 0; i < size; i++){
+                re1[i] = random.nextGaussian();
+                im1[i] = random.nextGaussian();
+            }
+            double re2[] = re1.clone();
+            double im2[] = im1.clone();
+
+            k.transform(re1, im1, lanes[t]);
+            ref.transform(re2, im2, lanes[t]);
+
+            double scale = 1;
+            for (int i = 0; i < size; i++){
+                scale = Math.max(scale, Math.max(Math.abs(re2[i]), Math.abs(im2[i])));
+            }
+            for (int i = 0; i < size; i++){
+                if (Math.abs(re1[i] - re2[i]) > TOLERANCE * scale || Math.abs(im1[i] - im2[i]) > TOLERANCE * scale){
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,280 @@
+/*
+OC Volume - Java Speech Recognition Engine
+Copyright (c) 2002-2004, OrangeCow organization
+All rights reserved.
+
+Redistribution and use in source and binary forms,
+with or without modification, are permitted provided
+that the following conditions are met:
+
+* Redistributions of source code must retain the
+  above copyright notice, this list of conditions
+  and the following disclaimer.
+* Redistributions in binary form must reproduce the
+  above copyright notice, this list of conditions
+  and the following disclaimer in the documentation
+  and/or other materials provided with the
+  distribution.
+* Neither the name of the OrangeCow organization
+  nor the names of its contributors may be used to
+  endorse or promote products derived from this
+  software without specific prior written
+  permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS
+AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF
+THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+POSSIBILITY OF SUCH DAMAGE.
+
+Contact information:
+Please visit http://ocvolume.sourceforge.net.
+*/
+
+package org.oc.ocvolume.dsp;
+
+import java.util.Hashtable;
+
+/**
+ * <b>description:</b> plan of a complex radix-2 FFT of one size. The bit reversal permutation and the twiddle
+ * factors are computed once per size and a plan never changes afterwards, so one plan can be used by any number
+ * of threads. All results are written into buffers given by the caller, the input is never modified except by
+ * the in-place transform.<br>
+ * <b>calls:</b> dspKernels<br>
+ * <b>called by:</b> realFft, fft<br>
+ * <b>input:</b> real or complex signal<br>
+ * <b>output:</b> real and imaginary part of the DFT
+ * @author Danny Su
+ */
+public class fftPlan{
+    /**
+     * plans created so far, keyed by number of points
+     */
+    private static Hashtable cache = new Hashtable();
+    /**
+     * number of points
+     */
+    protected final int numPoints;
+    /**
+     * number of butterfly stages, log2(numPoints)
+     */
+    protected final int numStages;
+    /**
+     * bit reversal permutation
+     */
+    final int bitReverse[];
+    /**
+     * cos(2 * pi * j / numPoints)
+     */
+    private final double cosTable[];
+    /**
+     * sin(2 * pi * j / numPoints)
+     */
+    private final double sinTable[];
+    /**
+     * loops over the lanes of interleaved transforms, SIMD when available
+     */
+    private final dspKernels kernels = dspKernels.getInstance();
+    /**
+     * returns the plan for a size, plans are created once and shared<br>
+     * calls: none<br>
+     * called by: realFft, fft
+     * @param n number of points (must be a power of 2)
+     * @return plan for n points
+     */
+    public static fftPlan forSize(int n){
+        Integer key = Integer.valueOf(n);
+        synchronized (cache){
+            fftPlan plan = (fftPlan)cache.get(key);
+            if (plan == null){
+                plan = new fftPlan(n);
+                cache.put(key, plan);
+            }
+            return plan;
+        }
+    }
+    /**
+     * constructor to compute the tables of a size<br>
+     * calls: none<br>
+     * called by: fftPlan
+     * @param n number of points (must be a power of 2)
+     */
+    private fftPlan(int n){
+        if (n < 1 || (n & (n - 1)) != 0){
+            throw new IllegalArgumentException("FFT size must be a power of 2: " + n);
+        }
+
+        numPoints = n;
+        numStages = Integer.numberOfTrailingZeros(n);
+
+        bitReverse = new int[n];
+        for (int i = 0; i < n; i++){
+            bitReverse[i] = (numStages == 0) ? 0 : (Integer.reverse(i) >>> (32 - numStages));
+        }
+
+        cosTable = new double[n / 2];
+        sinTable = new double[n / 2];
+        for (int j = 0; j < n / 2; j++){
+            cosTable[j] = Math.cos(2 * Math.PI * j / n);
+            sinTable[j] = Math.sin(2 * Math.PI * j / n);
+        }
+    }
+    /**
+     * returns the number of points<br>
+     * calls: none<br>
+     * called by: realFft, fft
+     * @return number of points
+     */
+    public int getSize(){
+        return numPoints;
+    }
+    /**
+     * performs the Fast Fourier Transformation of a real signal<br>
+     * calls: none<br>
+     * called by: fft
+     * @param in input signal with numPoints samples, it is not modified
+     * @param outReal receives the real part of the numPoints bins
+     * @param outImag receives the imaginary part of the numPoints bins
+     */
+    public void transform(double in[], double outReal[], double outImag[]){
+        for (int i = 0; i < numPoints; i++){
+            int j = bitReverse[i];
+            outReal[j] = in[i];
+            outImag[j] = 0;
+        }
+        butterflies(outReal, outImag);
+    }
+    /**
+     * performs the Fast Fourier Transformation of a complex signal<br>
+     * calls: none<br>
+     * called by: none
+     * @param inReal real part of the input, it is not modified
+     * @param inImag imaginary part of the input, it is not modified
+     * @param outReal receives the real part of the numPoints bins
+     * @param outImag receives the imaginary part of the numPoints bins
+     */
+    public void transform(double inReal[], double inImag[], double outReal[], double outImag[]){
+        for (int i = 0; i < numPoints; i++){
+            int j = bitReverse[i];
+            outReal[j] = inReal[i];
+            outImag[j] = inImag[i];
+        }
+        butterflies(outReal, outImag);
+    }
+    /**
+     * performs the Fast Fourier Transformation of a complex signal in place<br>
+     * calls: none<br>
+     * called by: none
+     * @param real real part of the input, replaced by the real part of the DFT
+     * @param imag imaginary part of the input, replaced by the imaginary part of the DFT
+     */
+    public void transformInPlace(double real[], double imag[]){
+        // bit reversal sorting, every pair is swapped once
+        for (int i = 0; i < numPoints; i++){
+            int j = bitReverse[i];
+            if (i < j){
+                double temp = real[i];
+                real[i] = real[j];
+                real[j] = temp;
+                temp = imag[i];
+                imag[i] = imag[j];
+                imag[j] = temp;
+            }
+        }
+        butterflies(real, imag);
+    }
+    /**
+     * performs the Fast Fourier Transformation of several complex signals at once, in place<br>
+     * the signals are stored interleaved (structure of arrays): point n of signal l is at n * lanes + l, so every
+     * butterfly runs over all signals with unit stride<br>
+     * calls: none<br>
+     * called by: none
+     * @param real real part of the input, replaced by the real part of the DFT
+     * @param imag imaginary part of the input, replaced by the imaginary part of the DFT
+     * @param lanes number of signals
+     */
+    public void transformInPlace(double real[], double imag[], int lanes){
+        // bit reversal sorting of whole rows of lanes
+        for (int i = 0; i < numPoints; i++){
+            int j = bitReverse[i];
+            if (i < j){
+                for (int l = 0; l < lanes; l++){
+                    double temp = real[i * lanes + l];
+                    real[i * lanes + l] = real[j * lanes + l];
+                    real[j * lanes + l] = temp;
+                    temp = imag[i * lanes + l];
+                    imag[i * lanes + l] = imag[j * lanes + l];
+                    imag[j * lanes + l] = temp;
+                }
+            }
+        }
+        butterflies(real, imag, lanes);
+    }
+    /**
+     * radix-2 decimation-in-time butterflies on data that is already in bit reversed order<br>
+     * calls: none<br>
+     * called by: fftPlan, realFft
+     * @param re real part
+     * @param im imaginary part
+     */
+    void butterflies(double re[], double im[]){
+        for (int size = 2; size <= numPoints; size <<= 1){
+            int halfSize = size >> 1;
+            int step = numPoints / size;
+
+            for (int start = 0; start < numPoints; start += size){
+                for (int j = 0; j < halfSize; j++){
+                    int top = start + j;
+                    int bottom = top + halfSize;
+
+                    double ur = cosTable[j * step];
+                    double ui = -sinTable[j * step];
+
+                    // butterfly calculation
+                    double tempReal = re[bottom] * ur - im[bottom] * ui;
+                    double tempImag = re[bottom] * ui + im[bottom] * ur;
+                    re[bottom] = re[top] - tempReal;
+                    im[bottom] = im[top] - tempImag;
+                    re[top] += tempReal;
+                    im[top] += tempImag;
+                }
+            }
+        }
+    }
+    /**
+     * radix-2 decimation-in-time butterflies on interleaved signals that are already in bit reversed order<br>
+     * every signal gets exactly the same operations as with butterflies(re, im)<br>
+     * calls: none<br>
+     * called by: fftPlan, realFft
+     * @param re real part, point n of signal l at n * lanes + l
+     * @param im imaginary part, point n of signal l at n * lanes + l
+     * @param lanes number of signals
+     */
+    void butterflies(double re[], double im[], int lanes){
+        for (int size = 2; size <= numPoints; size <<= 1){
+            int halfSize = size >> 1;
+            int step = numPoints / size;
+
+            for (int start = 0; start < numPoints; start += size){
+                for (int j = 0; j < halfSize; j++){
+                    int top = (start + j) * lanes;
+                    int bottom = top + halfSize * lanes;
+
+                    // the same butterfly for every lane, independent of each other
+                    kernels.butterfly(re, im, top, bottom, lanes, cosTable[j * step], -sinTable[j * step]);
+                }
+            }
+        }
+    }
+}
\ No newline at end of file
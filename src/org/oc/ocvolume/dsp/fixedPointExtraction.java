@@ -0,0 +1,567 @@
+/*
+OC Volume - Java Speech Recognition Engine
+Copyright (c) 2002-2004, OrangeCow organization
+All rights reserved.
+
+Redistribution and use in source and binary forms,
+with or without modification, are permitted provided
+that the following conditions are met:
+
+* Redistributions of source code must retain the
+  above copyright notice, this list of conditions
+  and the following disclaimer.
+* Redistributions in binary form must reproduce the
+  above copyright notice, this list of conditions
+  and the following disclaimer in the documentation
+  and/or other materials provided with the
+  distribution.
+* Neither the name of the OrangeCow organization
+  nor the names of its contributors may be used to
+  endorse or promote products derived from this
+  software without specific prior written
+  permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS
+AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF
+THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+POSSIBILITY OF SUCH DAMAGE.
+
+Contact information:
+Please visit http://ocvolume.sourceforge.net.
+*/
+
+package org.oc.ocvolume.dsp;
+
+import java.util.Hashtable;
+
+/**
+ * <b>description:</b> feature extraction in fixed point, for processors without a fast floating point unit.
+ * Pre-emphasis, Hamming window, FFT, mel filter, logarithm and DCT use integers only. Tables are 16 bit, samples
+ * are 16 bit with a few extra fraction bits and sums over filters are 64 bit. The FFT uses a block exponent per
+ * frame, so quiet and loud frames keep the same precision, and the square root and logarithm use lookup tables.
+ * Only the final coefficients are converted to double, so the features can be used with codebooks trained by
+ * featureExtraction.<br>
+ * On a processor with a floating point unit this class is not faster than featureExtraction, on x86 it takes
+ * about twice as long, because the integer kernels need extra shifts and cannot use the vector kernels. It is
+ * meant for processors that emulate floating point in software, and its 16 bit tables are a quarter of the size of
+ * the double tables.<br>
+ * The tables only depend on the configuration and are shared, the working buffers belong to the instance, so
+ * each thread should use its own instance.<br>
+ * <b>calls:</b> mfccPlan<br>
+ * <b>called by:</b> volume, train, batchExtraction<br>
+ * <b>input:</b> speech signal<br>
+ * <b>output:</b> mel-frequency cepstral coefficient
+ * @author Danny Su
+ */
+public class fixedPointExtraction implements featureExtractor{
+    /**
+     * shared tables, keyed by configuration
+     */
+    private static Hashtable cache = new Hashtable();
+    /**
+     * bits of the natural log table index
+     */
+    private final static int LOG_BITS = 10;
+    /**
+     * bits used to interpolate between two entries of the natural log table
+     */
+    private final static int LOG_FRACTION_BITS = 8;
+    /**
+     * ln(2) in Q24
+     */
+    private final static int LN2_Q24 = 11629080;
+    /**
+     * bits of the square root table index
+     */
+    private final static int SQRT_BITS = 10;
+    /**
+     * lowest value of the log of a filter output in Q16 (ln = -50, the same floor as featureExtraction)
+     */
+    private final static int LOG_FLOOR = -50 << 16;
+    /**
+     * FFT values are kept below this before every butterfly stage, so the products fit in 32 bits
+     */
+    private final static int HEADROOM = 1 << 14;
+    /**
+     * front-end configuration
+     */
+    protected final frontEndConfig config;
+    /**
+     * number of complex FFT points (fftSize / 2)
+     */
+    protected final int half;
+    /**
+     * number of unique spectrum bins (fftSize / 2 + 1)
+     */
+    protected final int numBins;
+    /**
+     * pre-emphasis alpha in Q15
+     */
+    private final int alpha;
+    /**
+     * Hamming window in Q15
+     */
+    private final short window[];
+    /**
+     * bit reversal permutation of the complex transform
+     */
+    private final int bitReverse[];
+    /**
+     * cos(2 * pi * j / half) in Q15
+     */
+    private final short cosTable[];
+    /**
+     * sin(2 * pi * j / half) in Q15
+     */
+    private final short sinTable[];
+    /**
+     * cos(2 * pi * k / fftSize) in Q15, used to split the complex result into the real spectrum
+     */
+    private final short splitCos[];
+    /**
+     * sin(2 * pi * k / fftSize) in Q15, used to split the complex result into the real spectrum
+     */
+    private final short splitSin[];
+    /**
+     * mel filter weights in Q14, same layout as mfccPlan.filterWeights
+     */
+    private final short filterWeights[];
+    /**
+     * first bin of each filter
+     */
+    private final int filterStart[];
+    /**
+     * number of bins of each filter
+     */
+    private final int filterLength[];
+    /**
+     * index of the first weight of each filter in filterWeights
+     */
+    private final int filterOffset[];
+    /**
+     * cosine table for the cepstral coefficients in Q14, [numCepstra * numMelFilters]
+     */
+    private final short dct[];
+    /**
+     * ln(1 + i / 2^LOG_BITS) in Q16
+     */
+    private final int logTable[];
+    /**
+     * sqrt(n) in Q8 for 2^SQRT_BITS <= n < 2^(SQRT_BITS + 2)
+     */
+    private final short sqrtTable[];
+    /**
+     * real part of the complex transform
+     */
+    private int re[];
+    /**
+     * imaginary part of the complex transform
+     */
+    private int im[];
+    /**
+     * magnitude spectrum of the current frame
+     */
+    private int magSpectrum[];
+    /**
+     * natural log of the mel filter outputs of the current frame in Q16
+     */
+    private int logFbank[];
+    /**
+     * constructor to create a fixed point extractor with the default configuration<br>
+     * calls: none<br>
+     * called by: volume, train
+     */
+    public fixedPointExtraction(){
+        this(frontEndConfig.DEFAULT);
+    }
+    /**
+     * constructor to create a fixed point extractor for a front-end configuration<br>
+     * calls: mfccPlan<br>
+     * called by: volume, frontEndConfig
+     * @param config front-end configuration
+     */
+    public fixedPointExtraction(frontEndConfig config){
+        this.config = config;
+        half = config.fftSize / 2;
+        numBins = half + 1;
+        alpha = (int)Math.round(config.preEmphasisAlpha * 32768);
+
+        fixedPointExtraction shared;
+        synchronized (cache){
+            shared = (fixedPointExtraction)cache.get(config);
+        }
+
+        if (shared != null){
+            window = shared.window;
+            bitReverse = shared.bitReverse;
+            cosTable = shared.cosTable;
+            sinTable = shared.sinTable;
+            splitCos = shared.splitCos;
+            splitSin = shared.splitSin;
+            filterWeights = shared.filterWeights;
+            filterStart = shared.filterStart;
+            filterLength = shared.filterLength;
+            filterOffset = shared.filterOffset;
+            dct = shared.dct;
+            logTable = shared.logTable;
+            sqrtTable = shared.sqrtTable;
+        }
+        else{
+            mfccPlan plan = mfccPlan.forConfig(config);
+
+            window = new short[config.frameLength];
+            for (int n = 0; n < window.length; n++){
+                window[n] = q(plan.window[n], 15);
+            }
+
+            bitReverse = new int[half];
+            int bits = Integer.numberOfTrailingZeros(half);
+            for (int i = 0; i < half; i++){
+                bitReverse[i] = Integer.reverse(i) >>> (32 - bits);
+            }
+
+            cosTable = new short[half / 2];
+            sinTable = new short[half / 2];
+            for (int j = 0; j < half / 2; j++){
+                cosTable[j] = q(Math.cos(2 * Math.PI * j / half), 15);
+                sinTable[j] = q(Math.sin(2 * Math.PI * j / half), 15);
+            }
+
+            splitCos = new short[half + 1];
+            splitSin = new short[half + 1];
+            for (int k = 0; k <= half; k++){
+                splitCos[k] = q(Math.cos(2 * Math.PI * k / config.fftSize), 15);
+                splitSin[k] = q(Math.sin(2 * Math.PI * k / config.fftSize), 15);
+            }
+
+            filterWeights = new short[plan.filterWeights.length];
+            for (int i = 0; i < filterWeights.length; i++){
+                filterWeights[i] = q(plan.filterWeights[i], 14);
+            }
+            filterStart = plan.filterStart;
+            filterLength = plan.filterLength;
+            filterOffset = plan.filterOffset;
+
+            dct = new short[config.numCepstra * config.numMelFilters];
+            for (int i = 0; i < config.numCepstra; i++){
+                for (int j = 0; j < config.numMelFilters; j++){
+                    dct[i * config.numMelFilters + j] = q(plan.dct[i][j], 14);
+                }
+            }
+
+            logTable = new int[(1 << LOG_BITS) + 1];
+            for (int i = 0; i < logTable.length; i++){
+                logTable[i] = (int)Math.round(Math.log(1 + (double)i / (1 << LOG_BITS)) * 65536);
+            }
+
+            sqrtTable = new short[3 << SQRT_BITS];
+            for (int i = 0; i < sqrtTable.length; i++){
+                sqrtTable[i] = (short)Math.round(Math.sqrt(i + (1 << SQRT_BITS)) * 256);
+            }
+
+            synchronized (cache){
+                if (cache.get(config) == null){
+                    cache.put(config, this);
+                }
+            }
+        }
+
+        re = new int[half];
+        im = new int[half];
+        magSpectrum = new int[numBins];
+        logFbank = new int[config.numMelFilters];
+    }
+    /**
+     * takes a speech signal and returns the Mel-Frequency Cepstral Coefficient (MFCC)<br>
+     * calls: none<br>
+     * called by: volume, train
+     * @param inputSignal Speech Waveform (16 bit integer data)
+     * @return Mel Frequency Cepstral Coefficients
+     */
+    public double[][] extract(short inputSignal[]){
+        return extractMatrix(inputSignal).toArray();
+    }
+    /**
+     * takes a speech signal and returns the Mel-Frequency Cepstral Coefficient (MFCC) as a feature matrix<br>
+     * the frames are built one at a time in reusable buffers, only the returned matrix is allocated<br>
+     * calls: none<br>
+     * called by: volume, train
+     * @param inputSignal Speech Waveform (16 bit integer data)
+     * @return Mel Frequency Cepstral Coefficients, numCepstra values per frame
+     */
+    public featureMatrix extractMatrix(short inputSignal[]){
+        featureMatrix MFCC = new featureMatrix(config.numFrames(inputSignal.length), config.numCepstra);
+        extractFrames(inputSignal, MFCC, 0, MFCC.getNumFrames());
+        return MFCC;
+    }
+    /**
+     * computes the MFCC of a range of frames into a matrix that already has one row per frame of the signal<br>
+     * every frame is scaled on its own, so ranges can be computed independently<br>
+     * calls: none<br>
+     * called by: fixedPointExtraction, parallelExtraction
+     * @param inputSignal Speech Waveform (16 bit integer data)
+     * @param MFCC receives the coefficients, numCepstra values per frame
+     * @param firstFrame index of the first frame to compute
+     * @param endFrame index after the last frame to compute
+     */
+    void extractFrames(short inputSignal[], featureMatrix MFCC, int firstFrame, int endFrame){
+        double out[] = MFCC.getData();
+
+        for (int k = firstFrame; k < endFrame; k++){
+            int exponent = window(inputSignal, k * config.frameShift);
+            exponent += transform();
+            melLog(exponent);
+
+            // Cepstral coefficients, Q16 logs times Q14 cosines
+            int offset = MFCC.getRowStart(k);
+            for (int i = 0; i < config.numCepstra; i++){
+                long sum = 0;
+                int row = i * config.numMelFilters;
+                for (int j = 0; j < config.numMelFilters; j++){
+                    sum += (long)logFbank[j] * dct[row + j];
+                }
+                out[offset + i] = sum * (1.0 / (1L << 30));
+            }
+        }
+    }
+    /**
+     * get the front-end configuration of this extractor<br>
+     * calls: none<br>
+     * called by: volume
+     * @return front-end configuration
+     */
+    public frontEndConfig getConfig(){
+        return config;
+    }
+    /**
+     * pre-emphasis and Hamming window of one frame, packed into re[] and im[] in bit reversed order and scaled
+     * so that the largest value is just below HEADROOM<br>
+     * calls: none<br>
+     * called by: fixedPointExtraction
+     * @param signal speech signal
+     * @param start index of the first sample of the frame
+     * @return base 2 exponent of the frame, the real value is the stored value times 2^exponent
+     */
+    private int window(short signal[], int start){
+        // the first sample has no predecessor and samples after the end are zero padding
+        int from = Math.max(0, 1 - start);
+        int to = Math.min(window.length, signal.length - start);
+
+        for (int j = 0; j < half; j++){
+            re[j] = 0;
+            im[j] = 0;
+        }
+
+        int peak = 0;
+        for (int n = from; n < to; n++){
+            int i = start + n;
+            // x[i] - alpha * x[i - 1] with 3 fraction bits, so quiet frames are not lost in rounding
+            int emphasized = ((signal[i] << 15) - alpha * signal[i - 1] + (1 << 11)) >> 12;
+            int value = (int)(((long)emphasized * window[n] + (1 << 14)) >> 15);
+
+            if ((n & 1) == 0){
+                re[bitReverse[n >> 1]] = value;
+            }
+            else{
+                im[bitReverse[n >> 1]] = value;
+            }
+            peak |= Math.abs(value);
+        }
+
+        // scale up quiet frames so they keep all their precision
+        int shift = normalize(peak);
+        if (shift > 0){
+            for (int j = 0; j < half; j++){
+                re[j] <<= shift;
+                im[j] <<= shift;
+            }
+        }
+        else if (shift < 0){
+            scaleDown(-shift);
+        }
+
+        return -3 - shift;
+    }
+    /**
+     * complex transform of re[] and im[] followed by the split into the magnitude spectrum of the real signal<br>
+     * calls: none<br>
+     * called by: fixedPointExtraction
+     * @return base 2 exponent added by the transform
+     */
+    private int transform(){
+        int exponent = 0;
+
+        for (int size = 2; size <= half; size <<= 1){
+            exponent += keepHeadroom();
+
+            int halfSize = size >> 1;
+            int step = half / size;
+            for (int start = 0; start < half; start += size){
+                for (int j = 0; j < halfSize; j++){
+                    int top = start + j;
+                    int bottom = top + halfSize;
+
+                    int ur = cosTable[j * step];
+                    int ui = -sinTable[j * step];
+
+                    // butterfly calculation, Q15 twiddle factors
+                    int tempReal = (re[bottom] * ur - im[bottom] * ui + (1 << 14)) >> 15;
+                    int tempImag = (re[bottom] * ui + im[bottom] * ur + (1 << 14)) >> 15;
+                    re[bottom] = re[top] - tempReal;
+                    im[bottom] = im[top] - tempImag;
+                    re[top] += tempReal;
+                    im[top] += tempImag;
+                }
+            }
+        }
+        exponent += keepHeadroom();
+
+        // split the complex result into the spectrum of the real signal
+        for (int k = 0; k <= half; k++){
+            int k1 = (k == half) ? 0 : k;
+            int k2 = (k == 0) ? 0 : half - k;
+
+            int a = re[k1];
+            int b = im[k1];
+            int c = re[k2];
+            int d = im[k2];
+
+            // even and odd part of the spectrum
+            int evenReal = (a + c) >> 1;
+            int evenImag = (b - d) >> 1;
+            int oddReal = (b + d) >> 1;
+            int oddImag = -((a - c) >> 1);
+
+            // multiply odd part by exp(-2 * pi * i * k / fftSize)
+            int cs = splitCos[k];
+            int sn = splitSin[k];
+            long outReal = evenReal + ((cs * oddReal + sn * oddImag + (1 << 14)) >> 15);
+            long outImag = evenImag + ((cs * oddImag - sn * oddReal + (1 << 14)) >> 15);
+
+            magSpectrum[k] = sqrt(outReal * outReal + outImag * outImag);
+        }
+
+        return exponent;
+    }
+    /**
+     * mel filter and natural log of the current magnitude spectrum into logFbank[]<br>
+     * calls: none<br>
+     * called by: fixedPointExtraction
+     * @param exponent base 2 exponent of the magnitude spectrum
+     */
+    private void melLog(int exponent){
+        for (int k = 0; k < logFbank.length; k++){
+            long sum = 0;
+            int bin = filterStart[k];
+            int w = filterOffset[k];
+            for (int n = 0; n < filterLength[k]; n++){
+                sum += (long)magSpectrum[bin + n] * filterWeights[w + n];
+            }
+
+            // weights are Q14
+            int value = log(sum, exponent - 14);
+            logFbank[k] = (value < LOG_FLOOR) ? LOG_FLOOR : value;
+        }
+    }
+    /**
+     * natural log of value * 2^exponent in Q16 using the lookup table<br>
+     * calls: none<br>
+     * called by: fixedPointExtraction
+     */
+    private int log(long value, int exponent){
+        if (value <= 0){
+            return LOG_FLOOR;
+        }
+
+        // value = 2^p * (1 + m), 0 <= m < 1
+        int p = 63 - Long.numberOfLeadingZeros(value);
+        int shift = p - LOG_BITS - LOG_FRACTION_BITS;
+        long mantissa = (shift >= 0) ? (value >> shift) : (value << -shift);
+        int index = (int)(mantissa >> LOG_FRACTION_BITS) & ((1 << LOG_BITS) - 1);
+        int fraction = (int)mantissa & ((1 << LOG_FRACTION_BITS) - 1);
+
+        int ln = logTable[index] + (((logTable[index + 1] - logTable[index]) * fraction) >> LOG_FRACTION_BITS);
+        return ln + (int)(((long)(p + exponent) * LN2_Q24) >> 8);
+    }
+    /**
+     * scales re[] and im[] down until every value is below HEADROOM<br>
+     * calls: none<br>
+     * called by: fixedPointExtraction
+     * @return number of bits shifted out
+     */
+    private int keepHeadroom(){
+        int peak = 0;
+        for (int j = 0; j < half; j++){
+            peak |= Math.abs(re[j]) | Math.abs(im[j]);
+        }
+
+        int shift = -normalize(peak);
+        if (shift > 0){
+            scaleDown(shift);
+            return shift;
+        }
+        return 0;
+    }
+    /**
+     * divides re[] and im[] by 2^shift with rounding<br>
+     * calls: none<br>
+     * called by: fixedPointExtraction
+     */
+    private void scaleDown(int shift){
+        int round = 1 << (shift - 1);
+        for (int j = 0; j < half; j++){
+            re[j] = (re[j] + round) >> shift;
+            im[j] = (im[j] + round) >> shift;
+        }
+    }
+    /**
+     * returns the left shift that brings the highest bit of peak just below HEADROOM (negative to shift right)<br>
+     * calls: none<br>
+     * called by: fixedPointExtraction
+     */
+    private static int normalize(int peak){
+        if (peak == 0){
+            return 0;
+        }
+        return Integer.numberOfLeadingZeros(peak) - Integer.numberOfLeadingZeros(HEADROOM - 1);
+    }
+    /**
+     * square root using the lookup table, the value is first scaled by an even power of 2 into the table range<br>
+     * calls: none<br>
+     * called by: fixedPointExtraction
+     */
+    private int sqrt(long value){
+        if (value == 0){
+            return 0;
+        }
+        int p = 63 - Long.numberOfLeadingZeros(value);
+        int e = (p - SQRT_BITS) & ~1;
+        int n = (int)((e >= 0) ? (value >> e) : (value << -e));
+
+        // sqrt(value) = sqrt(n) * 2^(e / 2), the table is Q8
+        int root = sqrtTable[n - (1 << SQRT_BITS)];
+        int shift = e / 2 - 8;
+        return (shift >= 0) ? (root << shift) : ((root + (1 << (-shift - 1))) >> -shift);
+    }
+    /**
+     * rounds a table value to a 16 bit fixed point number with the given number of fraction bits<br>
+     * calls: none<br>
+     * called by: fixedPointExtraction
+     */
+    private static short q(double value, int fractionBits){
+        long v = Math.round(value * (1 << fractionBits));
+        return (short)Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, v));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,147 @@
+/*
+OC Volume - Java Speech Recognition Engine
+Copyright (c) 2002-2004, OrangeCow organization
+All rights reserved.
+
+Redistribution and use in source and binary forms,
+with or without modification, are permitted provided
+that the following conditions are met:
+
+* Redistributions of source code must retain the
+  above copyright notice, this list of conditions
+  and the following disclaimer.
+* Redistributions in binary form must reproduce the
+  above copyright notice, this list of conditions
+  and the following disclaimer in the documentation
+  and/or other materials provided with the
+  distribution.
+* Neither the name of the OrangeCow organization
+  nor the names of its contributors may be used to
+  endorse or promote products derived from this
+  software without specific prior written
+  permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS
+AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF
+THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+POSSIBILITY OF SUCH DAMAGE.
+
+Contact information:
+Please visit http://ocvolume.sourceforge.net.
+*/
+
+package org.oc.ocvolume.dsp;
+
+/**
+ * <b>description:</b> matrix of feature vectors in single precision, one row per frame, rows are packed without
+ * gaps. Used by the single precision recognition path, where it halves the memory read per frame.<br>
+ * <b>calls:</b> none<br>
+ * <b>called by:</b> floatCodebook, volume<br>
+ * <b>input:</b> feature vectors<br>
+ * <b>output:</b> feature vectors
+ * @author Danny Su
+ */
+public class floatFeatureMatrix{
+    /**
+     * all values, row-major
+     */
+    protected float data[];
+    /**
+     * number of frames (rows)
+     */
+    protected int numFrames;
+    /**
+     * number of values per frame
+     */
+    protected int dimension;
+    /**
+     * constructor to create an empty matrix<br>
+     * calls: none<br>
+     * called by: volume
+     * @param numFrames number of frames
+     * @param dimension number of values per frame
+     */
+    public floatFeatureMatrix(int numFrames, int dimension){
+        this.data = new float[numFrames * dimension];
+        this.numFrames = numFrames;
+        this.dimension = dimension;
+    }
+    /**
+     * constructor to round the used columns of a double precision matrix<br>
+     * calls: none<br>
+     * called by: volume
+     * @param features double precision features, may be a view on some of the columns
+     */
+    public floatFeatureMatrix(featureMatrix features){
+        this(features.getNumFrames(), features.getDimension());
+
+        double source[] = features.getData();
+        for (int t = 0; t < numFrames; t++){
+            int from = features.getRowStart(t);
+            int to = t * dimension;
+            for (int k = 0; k < dimension; k++){
+                data[to + k] = (float)source[from + k];
+            }
+        }
+    }
+    /**
+     * get the number of frames<br>
+     * calls: none<br>
+     * called by: floatCodebook
+     * @return number of frames
+     */
+    public int getNumFrames(){
+        return numFrames;
+    }
+    /**
+     * get the number of values per frame<br>
+     * calls: none<br>
+     * called by: floatCodebook
+     * @return dimension
+     */
+    public int getDimension(){
+        return dimension;
+    }
+    /**
+     * get the backing array, frame t starts at getRowStart(t)<br>
+     * calls: none<br>
+     * called by: floatCodebook
+     * @return all values, row-major
+     */
+    public float[] getData(){
+        return data;
+    }
+    /**
+     * get the index in the backing array of the first value of a frame<br>
+     * calls: none<br>
+     * called by: floatCodebook
+     * @param frame frame index
+     * @return index in getData()
+     */
+    public int getRowStart(int frame){
+        return frame * dimension;
+    }
+    /**
+     * get a single value<br>
+     * calls: none<br>
+     * called by: volume
+     * @param frame frame index
+     * @param k column index
+     * @return value
+     */
+    public float get(int frame, int k){
+        return data[frame * dimension + k];
+    }
+}
\ No newline at end of file
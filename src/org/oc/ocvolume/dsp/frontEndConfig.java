@@ -0,0 +1,349 @@
+/*
+OC Volume - Java Speech Recognition Engine
+Copyright (c) 2002-2004, OrangeCow organization
+All rights reserved.
+
+Redistribution and use in source and binary forms,
+with or without modification, are permitted provided
+that the following conditions are met:
+
+* Redistributions of source code must retain the
+  above copyright notice, this list of conditions
+  and the following disclaimer.
+* Redistributions in binary form must reproduce the
+  above copyright notice, this list of conditions
+  and the following disclaimer in the documentation
+  and/or other materials provided with the
+  distribution.
+* Neither the name of the OrangeCow organization
+  nor the names of its contributors may be used to
+  endorse or promote products derived from this
+  software without specific prior written
+  permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS
+AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF
+THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+POSSIBILITY OF SUCH DAMAGE.
+
+Contact information:
+Please visit http://ocvolume.sourceforge.net.
+*/
+
+package org.oc.ocvolume.dsp;
+
+/**
+ * <b>description:</b> parameters of the feature extraction front-end. A configuration is checked when it is
+ * created and never changes afterwards, so it can be used as the key of cached tables (see mfccPlan).<br>
+ * <b>calls:</b> none<br>
+ * <b>called by:</b> featureExtraction, mfccPlan, volume<br>
+ * <b>input:</b> front-end parameters<br>
+ * <b>output:</b> none
+ * @author Danny Su
+ */
+public class frontEndConfig{
+    /**
+     * the configuration used by OC Volume so far (16 kHz, 512 sample frames)<br>
+     * the filterbank always ended at half the sampling rate, so that is the upper filter frequency
+     */
+    public final static frontEndConfig DEFAULT = new frontEndConfig(16000.0, 512, 256, 13, 23, 133.3334, 8000.0, 0.95);
+    /**
+     * default number of cepstra
+     */
+    private final static int DEFAULT_CEPSTRA = 13;
+    /**
+     * default number of mel filters
+     */
+    private final static int DEFAULT_FILTERS = 23;
+    /**
+     * default lower limit of filter
+     */
+    private final static double DEFAULT_LOWER_FREQ = 133.3334;
+    /**
+     * default pre-emphasis alpha
+     */
+    private final static double DEFAULT_ALPHA = 0.95;
+    /**
+     * sample rate in Hz
+     */
+    protected final double samplingRate;
+    /**
+     * Number of samples per frame
+     */
+    protected final int frameLength;
+    /**
+     * Number of samples between the start of two frames
+     */
+    protected final int frameShift;
+    /**
+     * Number of MFCCs per frame
+     */
+    protected final int numCepstra;
+    /**
+     * number of mel filters
+     */
+    protected final int numMelFilters;
+    /**
+     * lower limit of filter
+     */
+    protected final double lowerFilterFreq;
+    /**
+     * upper limit of filter
+     */
+    protected final double upperFilterFreq;
+    /**
+     * Pre-Emphasis Alpha (Set to 0 if no pre-emphasis should be performed)
+     */
+    protected final double preEmphasisAlpha;
+    /**
+     * FFT Size, the smallest power of 2 that holds a frame
+     */
+    protected final int fftSize;
+    /**
+     * constructor to create a configuration for a sample rate, with frames of about 32 ms and 50% overlap<br>
+     * the other parameters are the same as DEFAULT<br>
+     * calls: none<br>
+     * called by: volume
+     * @param samplingRate sample rate in Hz
+     */
+    public frontEndConfig(double samplingRate){
+        this(samplingRate, framePowerOf2(samplingRate), framePowerOf2(samplingRate) / 2, DEFAULT_CEPSTRA, DEFAULT_FILTERS,
+             DEFAULT_LOWER_FREQ, samplingRate / 2, DEFAULT_ALPHA);
+    }
+    /**
+     * constructor to create a configuration<br>
+     * calls: none<br>
+     * called by: volume
+     * @param samplingRate sample rate in Hz
+     * @param frameLength number of samples per frame
+     * @param frameShift number of samples between the start of two frames
+     * @param numCepstra number of MFCCs per frame
+     * @param numMelFilters number of mel filters
+     * @param lowerFilterFreq lower limit of the filterbank in Hz
+     * @param upperFilterFreq upper limit of the filterbank in Hz, at most half the sampling rate
+     * @param preEmphasisAlpha pre-emphasis alpha
+     */
+    public frontEndConfig(double samplingRate, int frameLength, int frameShift, int numCepstra, int numMelFilters,
+                          double lowerFilterFreq, double upperFilterFreq, double preEmphasisAlpha){
+        if (!(samplingRate > 0)){
+            throw new IllegalArgumentException("sampling rate must be positive: " + samplingRate);
+        }
+        if (frameLength < 4){
+            throw new IllegalArgumentException("frame length must be at least 4: " + frameLength);
+        }
+        if (frameShift < 1 || frameShift > frameLength){
+            throw new IllegalArgumentException("frame shift must be between 1 and the frame length: " + frameShift);
+        }
+        if (numMelFilters < 1){
+            throw new IllegalArgumentException("number of mel filters must be positive: " + numMelFilters);
+        }
+        if (numCepstra < 1 || numCepstra > numMelFilters){
+            throw new IllegalArgumentException("number of cepstra must be between 1 and the number of mel filters: " + numCepstra);
+        }
+        if (!(lowerFilterFreq >= 0 && lowerFilterFreq < upperFilterFreq && upperFilterFreq <= samplingRate / 2)){
+            throw new IllegalArgumentException("filter band must satisfy 0 <= lower < upper <= sampling rate / 2: "
+                                               + lowerFilterFreq + " - " + upperFilterFreq);
+        }
+        if (!(preEmphasisAlpha >= 0 && preEmphasisAlpha < 1)){
+            throw new IllegalArgumentException("pre-emphasis alpha must be in [0, 1): " + preEmphasisAlpha);
+        }
+
+        this.samplingRate = samplingRate;
+        this.frameLength = frameLength;
+        this.frameShift = frameShift;
+        this.numCepstra = numCepstra;
+        this.numMelFilters = numMelFilters;
+        this.lowerFilterFreq = lowerFilterFreq;
+        this.upperFilterFreq = upperFilterFreq;
+        this.preEmphasisAlpha = preEmphasisAlpha;
+
+        int n = 4;
+        while (n < frameLength){
+            n <<= 1;
+        }
+        fftSize = n;
+    }
+    /**
+     * power of 2 frame length closest to 32 ms<br>
+     * calls: none<br>
+     * called by: frontEndConfig
+     * @param samplingRate sample rate in Hz
+     * @return frame length
+     */
+    private static int framePowerOf2(double samplingRate){
+        double target = samplingRate * 0.032;
+        int n = 4;
+        while (n * 1.5 < target){
+            n <<= 1;
+        }
+        return n;
+    }
+    /**
+     * get the sample rate<br>
+     * calls: none<br>
+     * called by: volume
+     * @return sample rate in Hz
+     */
+    public double getSamplingRate(){
+        return samplingRate;
+    }
+    /**
+     * get the number of samples per frame<br>
+     * calls: none<br>
+     * called by: volume
+     * @return frame length
+     */
+    public int getFrameLength(){
+        return frameLength;
+    }
+    /**
+     * get the number of samples between the start of two frames<br>
+     * calls: none<br>
+     * called by: volume
+     * @return frame shift
+     */
+    public int getFrameShift(){
+        return frameShift;
+    }
+    /**
+     * get the number of MFCCs per frame<br>
+     * calls: none<br>
+     * called by: volume
+     * @return number of cepstra
+     */
+    public int getNumCepstra(){
+        return numCepstra;
+    }
+    /**
+     * get the number of mel filters<br>
+     * calls: none<br>
+     * called by: volume
+     * @return number of mel filters
+     */
+    public int getNumMelFilters(){
+        return numMelFilters;
+    }
+    /**
+     * get the lower limit of the filterbank<br>
+     * calls: none<br>
+     * called by: volume
+     * @return frequency in Hz
+     */
+    public double getLowerFilterFreq(){
+        return lowerFilterFreq;
+    }
+    /**
+     * get the upper limit of the filterbank<br>
+     * calls: none<br>
+     * called by: volume
+     * @return frequency in Hz
+     */
+    public double getUpperFilterFreq(){
+        return upperFilterFreq;
+    }
+    /**
+     * get the pre-emphasis alpha<br>
+     * calls: none<br>
+     * called by: volume
+     * @return alpha
+     */
+    public double getPreEmphasisAlpha(){
+        return preEmphasisAlpha;
+    }
+    /**
+     * get the FFT size<br>
+     * calls: none<br>
+     * called by: volume
+     * @return number of FFT points
+     */
+    public int getFftSize(){
+        return fftSize;
+    }
+    /**
+     * creates a feature extractor for this configuration<br>
+     * the fixed point front-end is used when the system property org.oc.ocvolume.frontend is "fixed",
+     * featureExtraction otherwise<br>
+     * calls: featureExtraction, fixedPointExtraction<br>
+     * called by: volume, train, batchExtraction
+     * @return new extractor, for use by one thread
+     */
+    public featureExtractor newExtractor(){
+        if ("fixed".equals(System.getProperty("org.oc.ocvolume.frontend"))){
+            return new fixedPointExtraction(this);
+        }
+        return new featureExtraction(this);
+    }
+    /**
+     * calculates the number of frames for a signal, the last frame is padded with zeros<br>
+     * calls: none<br>
+     * called by: featureExtraction, featureStream
+     * @param length number of samples in the signal
+     * @return number of frames (at least one)
+     */
+    public int numFrames(long length){
+        // unconditionally round up
+        long numFrames = (length + frameShift - 1) / frameShift;
+
+        if (numFrames == 0){
+            numFrames = 1;
+        }
+
+        return (int)numFrames;
+    }
+    /**
+     * check whether two configurations have the same parameters<br>
+     * calls: none<br>
+     * called by: mfccPlan
+     * @param o other configuration
+     * @return true if all parameters are the same
+     */
+    public boolean equals(Object o){
+        if (!(o instanceof frontEndConfig)){
+            return false;
+        }
+        frontEndConfig c = (frontEndConfig)o;
+        return samplingRate == c.samplingRate && frameLength == c.frameLength && frameShift == c.frameShift
+            && numCepstra == c.numCepstra && numMelFilters == c.numMelFilters && lowerFilterFreq == c.lowerFilterFreq
+            && upperFilterFreq == c.upperFilterFreq && preEmphasisAlpha == c.preEmphasisAlpha;
+    }
+    /**
+     * hash code consistent with equals<br>
+     * calls: none<br>
+     * called by: mfccPlan
+     * @return hash code
+     */
+    public int hashCode(){
+        long h = Double.doubleToLongBits(samplingRate);
+        h = h * 31 + frameLength;
+        h = h * 31 + frameShift;
+        h = h * 31 + numCepstra;
+        h = h * 31 + numMelFilters;
+        h = h * 31 + Double.doubleToLongBits(lowerFilterFreq);
+        h = h * 31 + Double.doubleToLongBits(upperFilterFreq);
+        h = h * 31 + Double.doubleToLongBits(preEmphasisAlpha);
+        return (int)(h ^ (h >>> 32));
+    }
+    /**
+     * readable description of the configuration<br>
+     * calls: none<br>
+     * called by: volume
+     * @return description
+     */
+    public String toString(){
+        return samplingRate + " Hz, frame " + frameLength + ", shift " + frameShift + ", fft " + fftSize + ", "
+            + numMelFilters + " filters (" + lowerFilterFreq + " - " + upperFilterFreq + " Hz), "
+            + numCepstra + " cepstra, alpha " + preEmphasisAlpha;
+    }
+}
\ No newline at end of file
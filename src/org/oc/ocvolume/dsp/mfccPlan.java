@@ -0,0 +1,261 @@
+/*
+OC Volume - Java Speech Recognition Engine
+Copyright (c) 2002-2004, OrangeCow organization
+All rights reserved.
+
+Redistribution and use in source and binary forms,
+with or without modification, are permitted provided
+that the following conditions are met:
+
+* Redistributions of source code must retain the
+  above copyright notice, this list of conditions
+  and the following disclaimer.
+* Redistributions in binary form must reproduce the
+  above copyright notice, this list of conditions
+  and the following disclaimer in the documentation
+  and/or other materials provided with the
+  distribution.
+* Neither the name of the OrangeCow organization
+  nor the names of its contributors may be used to
+  endorse or promote products derived from this
+  software without specific prior written
+  permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS
+AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF
+THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+POSSIBILITY OF SUCH DAMAGE.
+
+Contact information:
+Please visit http://ocvolume.sourceforge.net.
+*/
+
+package org.oc.ocvolume.dsp;
+
+import java.util.Hashtable;
+
+/**
+ * <b>description:</b> precomputed tables used to extract mel-frequency cepstral coefficients. The FFT bin indices,
+ * mel filterbank weights, cosine table and hamming window only depend on the front-end configuration, so they are
+ * computed once per configuration and shared by all extractors. A plan is never modified after it is built.<br>
+ * <b>calls:</b> none<br>
+ * <b>called by:</b> featureExtraction<br>
+ * <b>input:</b> none<br>
+ * <b>output:</b> lookup tables
+ * @author Danny Su
+ */
+public class mfccPlan{
+    /**
+     * plans that have been built, keyed by configuration
+     */
+    private static Hashtable cache = new Hashtable();
+    /**
+     * configuration the tables were computed for
+     */
+    final frontEndConfig config;
+    /**
+     * number of unique FFT bins (fftSize / 2 + 1)
+     */
+    final int numBins;
+    /**
+     * FFT bin indices of the filter edges, numMelFilters + 2 entries
+     */
+    final int cbin[];
+    /**
+     * first FFT bin of each mel filter
+     */
+    final int filterStart[];
+    /**
+     * number of FFT bins covered by each mel filter
+     */
+    final int filterLength[];
+    /**
+     * index in filterWeights of the first weight of each mel filter
+     */
+    final int filterOffset[];
+    /**
+     * weights of all mel filters, one after the other
+     */
+    final double filterWeights[];
+    /**
+     * cosine table for the cepstral coefficients, [numCepstra][numMelFilters]
+     */
+    final double dct[][];
+    /**
+     * hamming window values
+     */
+    final double window[];
+    /**
+     * returns the plan for the default front-end configuration<br>
+     * calls: mfccPlan<br>
+     * called by: featureExtraction
+     * @return shared plan
+     */
+    public static mfccPlan getDefault(){
+        return forConfig(frontEndConfig.DEFAULT);
+    }
+    /**
+     * returns the plan for a front-end configuration, it is built the first time the configuration is used<br>
+     * calls: mfccPlan<br>
+     * called by: featureExtraction, volume
+     * @param config front-end configuration
+     * @return shared plan
+     */
+    public static mfccPlan forConfig(frontEndConfig config){
+        synchronized (cache){
+            mfccPlan plan = (mfccPlan)cache.get(config);
+            if (plan == null){
+                plan = new mfccPlan(config);
+                cache.put(config, plan);
+            }
+            return plan;
+        }
+    }
+    /**
+     * constructor to compute all the tables<br>
+     * calls: none<br>
+     * called by: mfccPlan
+     * @param config front-end configuration
+     */
+    private mfccPlan(frontEndConfig config){
+        this.config = config;
+
+        final int frameLength = config.frameLength;
+        final int fftSize = config.fftSize;
+        final int numMelFilters = config.numMelFilters;
+        final int numCepstra = config.numCepstra;
+
+        numBins = fftSize / 2 + 1;
+
+        // hamming window
+        window = new double[frameLength];
+        for (int n = 0; n < frameLength; n++){
+            window[n] = 0.54 - 0.46 * Math.cos( (2 * Math.PI * n) / (frameLength - 1) );
+        }
+
+        // FFT bin indices
+        cbin = fftBinIndices(config);
+
+        // mel filterbank weights
+        // the integer divisions are the same as the ones used to train existing codebooks, keep them
+        double weights[][] = new double[numMelFilters][numBins];
+        for (int k = 1; k <= numMelFilters; k++){
+            for (int i = cbin[k - 1]; i <= cbin[k]; i++){
+                weights[k - 1][i] = (i - cbin[k - 1] + 1) / (cbin[k] - cbin[k-1] + 1);
+            }
+
+            for (int i = cbin[k] + 1; i <= cbin[k + 1]; i++){
+                weights[k - 1][i] = 1 - ((i - cbin[k]) / (cbin[k + 1] - cbin[k] + 1));
+            }
+        }
+
+        // keep only the bins between the first and the last non-zero weight of each filter
+        filterStart = new int[numMelFilters];
+        filterLength = new int[numMelFilters];
+        filterOffset = new int[numMelFilters];
+        int total = 0;
+        for (int k = 0; k < numMelFilters; k++){
+            int first = 0;
+            while (first < numBins && weights[k][first] == 0){
+                first++;
+            }
+            int last = numBins - 1;
+            while (last >= first && weights[k][last] == 0){
+                last--;
+            }
+
+            filterStart[k] = (first < numBins) ? first : 0;
+            filterLength[k] = last - first + 1;
+            if (filterLength[k] < 0){
+                filterLength[k] = 0;
+            }
+            filterOffset[k] = total;
+            total += filterLength[k];
+        }
+
+        filterWeights = new double[total];
+        for (int k = 0; k < numMelFilters; k++){
+            System.arraycopy(weights[k], filterStart[k], filterWeights, filterOffset[k], filterLength[k]);
+        }
+
+        // cosine table
+        dct = new double[numCepstra][numMelFilters];
+        for (int i = 0; i < numCepstra; i++){
+            for (int j = 1; j <= numMelFilters; j++){
+                dct[i][j - 1] = Math.cos(Math.PI * i / numMelFilters * (j - 0.5));
+            }
+        }
+    }
+    /**
+     * get the configuration of this plan<br>
+     * calls: none<br>
+     * called by: volume
+     * @return front-end configuration
+     */
+    public frontEndConfig getConfig(){
+        return config;
+    }
+    /**
+     * calculates the FFT bin indices<br>
+     * calls: none<br>
+     * called by: mfccPlan
+     * @param config front-end configuration
+     * @return array of FFT bin indices
+     */
+    private static int[] fftBinIndices(frontEndConfig config){
+        final int numMelFilters = config.numMelFilters;
+        final double samplingRate = config.samplingRate;
+        final int fftSize = config.fftSize;
+
+        int cbin[] = new int[numMelFilters + 2];
+        
+        cbin[0] = (int)Math.round(config.lowerFilterFreq / samplingRate * fftSize);
+        cbin[cbin.length - 1] = (int)Math.round(config.upperFilterFreq / samplingRate * fftSize);
+        
+        for (int i = 1; i <= numMelFilters; i++){
+            double fc = centerFreq(config, i);
+
+            cbin[i] = (int)Math.round(fc / samplingRate * fftSize);
+        }
+        
+        return cbin;
+    }
+    /**
+     * calculates center frequency<br>
+     * calls: none<br>
+     * called by: mfccPlan
+     * @param config front-end configuration
+     * @param i Index of mel filters
+     * @return Center Frequency
+     */
+    private static double centerFreq(frontEndConfig config, int i){
+        double mel[] = new double[2];
+        mel[0] = featureExtraction.freqToMel(config.lowerFilterFreq);
+        mel[1] = featureExtraction.freqToMel(config.upperFilterFreq);
+        
+        // take inverse mel of:
+        double temp = mel[0] + ((mel[1] - mel[0]) / (config.numMelFilters + 1)) * i;
+        return inverseMel(temp);
+    }
+    /**
+     * calculates the inverse of Mel Frequency<br>
+     * calls: none<br>
+     * called by: mfccPlan
+     */
+    private static double inverseMel(double x){
+        double temp = Math.pow(10, x / 2595) - 1;
+        return 700 * (temp);
+    }
+}
\ No newline at end of file
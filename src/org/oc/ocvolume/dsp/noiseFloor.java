@@ -0,0 +1,309 @@
+/*
+OC Volume - Java Speech Recognition Engine
+Copyright (c) 2002-2004, OrangeCow organization
+All rights reserved.
+
+Redistribution and use in source and binary forms,
+with or without modification, are permitted provided
+that the following conditions are met:
+
+* Redistributions of source code must retain the
+  above copyright notice, this list of conditions
+  and the following disclaimer.
+* Redistributions in binary form must reproduce the
+  above copyright notice, this list of conditions
+  and the following disclaimer in the documentation
+  and/or other materials provided with the
+  distribution.
+* Neither the name of the OrangeCow organization
+  nor the names of its contributors may be used to
+  endorse or promote products derived from this
+  software without specific prior written
+  permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS
+AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF
+THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+POSSIBILITY OF SUCH DAMAGE.
+
+Contact information:
+Please visit http://ocvolume.sourceforge.net.
+*/
+
+package org.oc.ocvolume.dsp;
+
+/**
+ * <b>description:</b> keeps track of the background noise of a stream of frames, its squared mean energy and its
+ * zero-crossing rate. The first frames are taken as noise and averaged, like endPt and micInput always did. After
+ * that the estimates follow the frames that are close to the noise level with exponential smoothing, so slow
+ * changes of the room noise are followed and speech is left out. If the noise goes up so much that no frame is
+ * close to the old level any more, the minimum energy of the frames in the last window (minimum statistics)
+ * becomes the new level. The window must be longer than a word, so that it always holds a pause. A caller that
+ * knows a word is going on (micInput) can hold the level until the word ends, so that a word longer than the
+ * window does not become the noise.<br>
+ * The energy and the mean crossing rate are per sample, so an energy estimated on the 100ms frames of micInput can
+ * be used by endPt on 5ms frames. The spread of the crossing rate (getCrossingSD, getCrossingThreshold) shrinks
+ * with longer frames, so it is only valid for frames of the length it was measured on.<br>
+ * The recording thread updates the estimate while the recognizer reads it, all methods are synchronized. copy
+ * returns an estimate that does not change any more, so several values read from it always match.<br>
+ * <b>calls:</b> none<br>
+ * <b>called by:</b> micInput, endPt, streamingEndPt<br>
+ * <b>input:</b> energy and zero-crossing rate of each frame<br>
+ * <b>output:</b> noise energy and zero-crossing statistics
+ * @author Keith Fung
+ */
+public class noiseFloor{
+    /**
+     * a frame with less energy than this times the noise energy is taken as noise
+     */
+    public final static double NOISE_RATIO = 2;
+    /**
+     * number of parts of the minimum statistics window
+     */
+    private final static int SUB_WINDOWS = 8;
+    /**
+     * number of frames averaged at the start
+     */
+    private final int initFrames;
+    /**
+     * number of frames in one part of the minimum statistics window
+     */
+    private final int subWindowFrames;
+    /**
+     * weight of the old estimate in the exponential smoothing
+     */
+    private final double smoothing;
+    /**
+     * number of frames seen
+     */
+    private int numFrames = 0;
+    /**
+     * sums over the first frames
+     */
+    private double energySum = 0;
+    private double crossingSum = 0;
+    private double crossingSquareSum = 0;
+    /**
+     * squared mean energy of the noise
+     */
+    private double energy = 0;
+    /**
+     * zero-crossing rate of the noise and its mean square
+     */
+    private double crossingMean = 0;
+    private double crossingSquare = 0;
+    /**
+     * minimum energy in the last parts of the window
+     */
+    private double windowMin[] = new double[SUB_WINDOWS];
+    /**
+     * part of windowMin to replace next
+     */
+    private int windowPos = 0;
+    /**
+     * minimum energy in the current part
+     */
+    private double currentMin = 0;
+    /**
+     * number of frames in the current part
+     */
+    private int currentCount = 0;
+    /**
+     * constructor<br>
+     * calls: none<br>
+     * called by: micInput, streamingEndPt
+     * @param initFrames number of frames at the start that are noise
+     * @param windowFrames number of frames of the minimum statistics window, longer than a word, rounded up to a
+     * multiple of 8 frames
+     * @param smoothing weight of the old estimate for each frame, between 0 and 1
+     */
+    public noiseFloor(int initFrames, int windowFrames, double smoothing){
+        this.initFrames = Math.max(1, initFrames);
+        this.subWindowFrames = Math.max(1, (windowFrames + SUB_WINDOWS - 1) / SUB_WINDOWS);
+        this.smoothing = smoothing;
+    }
+    /**
+     * adds the next frame<br>
+     * calls: none<br>
+     * called by: micInput, streamingEndPt
+     * @param frameEnergy squared mean energy of the frame
+     * @param crossingRate zero-crossings per sample of the frame
+     */
+    public synchronized void update(double frameEnergy, double crossingRate){
+        update(frameEnergy, crossingRate, false);
+    }
+    /**
+     * adds the next frame, the level is held while the frame is part of a word<br>
+     * a held frame still counts for the minimum statistics, so that after a noise step so loud that everything is
+     * a word, the level jumps as soon as the caller ends the word<br>
+     * calls: none<br>
+     * called by: micInput
+     * @param frameEnergy squared mean energy of the frame
+     * @param crossingRate zero-crossings per sample of the frame
+     * @param inWord true if the frame is part of a word, the estimates are then not changed
+     */
+    public synchronized void update(double frameEnergy, double crossingRate, boolean inWord){
+        numFrames++;
+
+        //the first frames are noise
+        if (numFrames <= initFrames){
+            energySum += frameEnergy;
+            crossingSum += crossingRate;
+            crossingSquareSum += crossingRate * crossingRate;
+            energy = energySum / numFrames;
+            crossingMean = crossingSum / numFrames;
+            crossingSquare = crossingSquareSum / numFrames;
+
+            currentMin = energy;
+            for (int c = 0; c < SUB_WINDOWS; c++){
+                windowMin[c] = energy;
+            }
+            return;
+        }
+
+        //minimum statistics
+        currentMin = Math.min(currentMin, frameEnergy);
+        currentCount++;
+        if (currentCount == subWindowFrames){
+            windowMin[windowPos] = currentMin;
+            windowPos = (windowPos + 1) % SUB_WINDOWS;
+            currentMin = Double.MAX_VALUE;
+            currentCount = 0;
+        }
+        double minimum = currentMin;
+        for (int c = 0; c < SUB_WINDOWS; c++){
+            minimum = Math.min(minimum, windowMin[c]);
+        }
+
+        if (inWord){
+            return;
+        }
+
+        //follow the frames that are noise
+        if (frameEnergy < energy * NOISE_RATIO){
+            energy = smoothing * energy + (1 - smoothing) * frameEnergy;
+            crossingMean = smoothing * crossingMean + (1 - smoothing) * crossingRate;
+            crossingSquare = smoothing * crossingSquare + (1 - smoothing) * crossingRate * crossingRate;
+        }
+
+        //even the quietest part of the window is louder, the noise went up
+        if (minimum > energy){
+            energy = minimum;
+        }
+    }
+    /**
+     * returns whether enough frames were seen for an estimate<br>
+     * calls: none<br>
+     * called by: micInput, endPt, streamingEndPt
+     * @return true once the first frames were seen
+     */
+    public synchronized boolean isReady(){
+        return numFrames >= initFrames;
+    }
+    /**
+     * returns the squared mean energy of the noise<br>
+     * calls: none<br>
+     * called by: micInput, endPt, streamingEndPt
+     * @return noise energy
+     */
+    public synchronized double getEnergy(){
+        return energy;
+    }
+    /**
+     * returns the zero-crossing rate of the noise<br>
+     * calls: none<br>
+     * called by: endPt, streamingEndPt
+     * @return zero-crossings per sample
+     */
+    public synchronized double getCrossingRate(){
+        return crossingMean;
+    }
+    /**
+     * returns the standard deviation of the zero-crossing rate of the noise, computed like endPt.zeroCrossing<br>
+     * calls: none<br>
+     * called by: endPt, streamingEndPt
+     * @return standard deviation of the zero-crossings per sample
+     */
+    public synchronized double getCrossingSD(){
+        return Math.sqrt(crossingSquare - (crossingMean * crossingMean));
+    }
+    /**
+     * zero-crossing rate threshold of endPt.zeroCrossing for this noise, for frames of the length the estimate
+     * was made on<br>
+     * calls: none<br>
+     * called by: streamingEndPt
+     * @return threshold of the zero-crossing rate
+     */
+    public synchronized double getCrossingThreshold(){
+        final double crossingConst = 12.5;
+
+        double IZC = getCrossingRate();
+        double crossingSD = getCrossingSD();
+
+        double IZCT = 0.15625;    //25 / 160
+        //check if 25/10ms < SD or vise versa
+        if ((0.15625) > (IZC * 2 * crossingSD)){
+            IZCT = IZC * 2 * crossingSD;
+        }
+        return IZCT * crossingConst;
+    }
+    /**
+     * returns the number of frames seen<br>
+     * calls: none<br>
+     * called by: volume
+     * @return number of frames
+     */
+    public synchronized int getNumFrames(){
+        return numFrames;
+    }
+    /**
+     * returns a copy of the current estimate, which later frames do not change<br>
+     * calls: none<br>
+     * called by: micInput
+     * @return copy of the estimate
+     */
+    public synchronized noiseFloor copy(){
+        noiseFloor c = new noiseFloor(initFrames, subWindowFrames * SUB_WINDOWS, smoothing);
+        c.numFrames = numFrames;
+        c.energySum = energySum;
+        c.crossingSum = crossingSum;
+        c.crossingSquareSum = crossingSquareSum;
+        c.energy = energy;
+        c.crossingMean = crossingMean;
+        c.crossingSquare = crossingSquare;
+        c.windowMin = windowMin.clone();
+        c.windowPos = windowPos;
+        c.currentMin = currentMin;
+        c.currentCount = currentCount;
+        return c;
+    }
+    /**
+     * forgets all frames<br>
+     * calls: none<br>
+     * called by: streamingEndPt
+     */
+    public synchronized void reset(){
+        numFrames = 0;
+        energySum = 0;
+        crossingSum = 0;
+        crossingSquareSum = 0;
+        energy = 0;
+        crossingMean = 0;
+        crossingSquare = 0;
+        windowPos = 0;
+        currentMin = 0;
+        currentCount = 0;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,212 @@
+/*
+OC Volume - Java Speech Recognition Engine
+Copyright (c) 2002-2004, OrangeCow organization
+All rights reserved.
+
+Redistribution and use in source and binary forms,
+with or without modification, are permitted provided
+that the following conditions are met:
+
+* Redistributions of source code must retain the
+  above copyright notice, this list of conditions
+  and the following disclaimer.
+* Redistributions in binary form must reproduce the
+  above copyright notice, this list of conditions
+  and the following disclaimer in the documentation
+  and/or other materials provided with the
+  distribution.
+* Neither the name of the OrangeCow organization
+  nor the names of its contributors may be used to
+  endorse or promote products derived from this
+  software without specific prior written
+  permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS
+AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF
+THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+POSSIBILITY OF SUCH DAMAGE.
+
+Contact information:
+Please visit http://ocvolume.sourceforge.net.
+*/
+
+package org.oc.ocvolume.dsp;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * <b>description:</b> feature extraction of one long signal on a fork-join pool. The frames are split into chunks
+ * that are computed by the workers directly into one preallocated matrix. Every frame reads the sample before it
+ * for pre-emphasis, so chunks do not depend on each other and the result is the same as the extractor of the
+ * configuration (frontEndConfig.newExtractor, featureExtraction or fixedPointExtraction) gives on its own.
+ * Every worker thread uses its own feature extractor. An instance can be shared by several threads.<br>
+ * <b>calls:</b> featureExtraction, fixedPointExtraction, frontEndConfig<br>
+ * <b>called by:</b> featureExtraction, volume<br>
+ * <b>input:</b> speech signal<br>
+ * <b>output:</b> mel-frequency cepstral coefficient
+ * @author Danny Su
+ */
+public class parallelExtraction implements featureExtractor{
+    /**
+     * signals with fewer frames are computed on the calling thread
+     */
+    final static int MIN_PARALLEL_FRAMES = 512;
+    /**
+     * default number of frames per chunk
+     */
+    private final static int DEFAULT_CHUNK_FRAMES = 128;
+    /**
+     * extractor on the common pool with the default configuration
+     */
+    private static parallelExtraction defaultInstance;
+    /**
+     * front-end configuration
+     */
+    protected final frontEndConfig config;
+    /**
+     * pool running the work
+     */
+    private ForkJoinPool pool;
+    /**
+     * number of frames computed by one task
+     */
+    private int chunkFrames;
+    /**
+     * feature extractor of each worker thread
+     */
+    private ThreadLocal extractors;
+    /**
+     * returns the extractor on the common pool with the default configuration<br>
+     * calls: none<br>
+     * called by: featureExtraction
+     * @return shared extractor
+     */
+    public static synchronized parallelExtraction getDefault(){
+        if (defaultInstance == null){
+            defaultInstance = new parallelExtraction(frontEndConfig.DEFAULT);
+        }
+        return defaultInstance;
+    }
+    /**
+     * constructor to compute on the common fork-join pool<br>
+     * calls: none<br>
+     * called by: volume
+     * @param config front-end configuration
+     */
+    public parallelExtraction(frontEndConfig config){
+        this(config, ForkJoinPool.commonPool(), DEFAULT_CHUNK_FRAMES);
+    }
+    /**
+     * constructor<br>
+     * calls: none<br>
+     * called by: volume
+     * @param config front-end configuration
+     * @param pool pool running the work
+     * @param chunkFrames number of frames computed by one task
+     */
+    public parallelExtraction(final frontEndConfig config, ForkJoinPool pool, int chunkFrames){
+        if (chunkFrames < 1){
+            throw new IllegalArgumentException("chunkFrames must be positive: " + chunkFrames);
+        }
+        this.config = config;
+        this.pool = pool;
+        this.chunkFrames = chunkFrames;
+        extractors = new ThreadLocal(){
+            protected Object initialValue(){
+                return config.newExtractor();
+            }
+        };
+    }
+    /**
+     * takes a speech signal and returns the Mel-Frequency Cepstral Coefficient (MFCC)<br>
+     * calls: featureExtraction<br>
+     * called by: featureExtraction, volume
+     * @param inputSignal Speech Waveform (16 bit integer data)
+     * @return Mel Frequency Cepstral Coefficients
+     */
+    public double[][] extract(short inputSignal[]){
+        return extractMatrix(inputSignal).toArray();
+    }
+    /**
+     * takes a speech signal and returns the Mel-Frequency Cepstral Coefficient (MFCC) as a feature matrix<br>
+     * calls: featureExtraction, fixedPointExtraction<br>
+     * called by: featureExtraction, volume
+     * @param inputSignal Speech Waveform (16 bit integer data)
+     * @return Mel Frequency Cepstral Coefficients, numCepstra values per frame
+     */
+    public featureMatrix extractMatrix(short inputSignal[]){
+        featureMatrix MFCC = new featureMatrix(config.numFrames(inputSignal.length), config.numCepstra);
+
+        if (MFCC.getNumFrames() < MIN_PARALLEL_FRAMES){
+            extractFrames(inputSignal, MFCC, 0, MFCC.getNumFrames());
+        }
+        else{
+            pool.invoke(new frameRange(inputSignal, MFCC, 0, MFCC.getNumFrames()));
+        }
+
+        return MFCC;
+    }
+    /**
+     * get the front-end configuration of this extractor<br>
+     * calls: none<br>
+     * called by: volume
+     * @return front-end configuration
+     */
+    public frontEndConfig getConfig(){
+        return config;
+    }
+    /**
+     * computes a range of frames with the extractor of the current thread<br>
+     * calls: featureExtraction, fixedPointExtraction<br>
+     * called by: parallelExtraction
+     */
+    private void extractFrames(short signal[], featureMatrix MFCC, int first, int end){
+        Object fe = extractors.get();
+        if (fe instanceof fixedPointExtraction){
+            ((fixedPointExtraction)fe).extractFrames(signal, MFCC, first, end);
+        }
+        else{
+            ((featureExtraction)fe).extractFrames(signal, MFCC, first, end);
+        }
+    }
+    /**
+     * task computing a range of frames, split in half until it is at most chunkFrames long
+     */
+    private class frameRange extends RecursiveAction{
+        private final static long serialVersionUID = 1L;
+        private short signal[];
+        private featureMatrix MFCC;
+        private int first;
+        private int end;
+
+        frameRange(short signal[], featureMatrix MFCC, int first, int end){
+            this.signal = signal;
+            this.MFCC = MFCC;
+            this.first = first;
+            this.end = end;
+        }
+
+        protected void compute(){
+            if (end - first <= chunkFrames){
+                extractFrames(signal, MFCC, first, end);
+            }
+            else{
+                int middle = (first + end) >>> 1;
+                invokeAll(new frameRange(signal, MFCC, first, middle), new frameRange(signal, MFCC, middle, end));
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,84 @@
+/*
+OC Volume - Java Speech Recognition Engine
+Copyright (c) 2002-2004, OrangeCow organization
+All rights reserved.
+
+Redistribution and use in source and binary forms,
+with or without modification, are permitted provided
+that the following conditions are met:
+
+* Redistributions of source code must retain the
+  above copyright notice, this list of conditions
+  and the following disclaimer.
+* Redistributions in binary form must reproduce the
+  above copyright notice, this list of conditions
+  and the following disclaimer in the documentation
+  and/or other materials provided with the
+  distribution.
+* Neither the name of the OrangeCow organization
+  nor the names of its contributors may be used to
+  endorse or promote products derived from this
+  software without specific prior written
+  permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS
+AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF
+THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+POSSIBILITY OF SUCH DAMAGE.
+
+Contact information:
+Please visit http://ocvolume.sourceforge.net.
+*/
+
+package org.oc.ocvolume.dsp;
+
+/**
+ * <b>description:</b> radix-2 decimation-in-time FFT backend, runs the shared fftPlan of its size. The butterflies
+ * over interleaved signals use dspKernels, so they are SIMD when available.<br>
+ * <b>calls:</b> fftPlan<br>
+ * <b>called by:</b> fftBackend<br>
+ * <b>input:</b> complex signals<br>
+ * <b>output:</b> DFT of the signals
+ * @author Danny Su
+ */
+public class radix2Fft extends fftBackend{
+    /**
+     * tables of the transform
+     */
+    private final fftPlan plan;
+    /**
+     * constructor<br>
+     * calls: fftPlan<br>
+     * called by: fftBackend
+     * @param n number of points (must be a power of 2)
+     */
+    public radix2Fft(int n){
+        super(n);
+        plan = fftPlan.forSize(n);
+    }
+
+    public String getName(){
+        return "radix2";
+    }
+
+    public void transform(double re[], double im[], int lanes){
+        if (lanes == 1){
+            plan.transformInPlace(re, im);
+        }
+        else{
+            plan.transformInPlace(re, im, lanes);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,179 @@
+/*
+OC Volume - Java Speech Recognition Engine
+Copyright (c) 2002-2004, OrangeCow organization
+All rights reserved.
+
+Redistribution and use in source and binary forms,
+with or without modification, are permitted provided
+that the following conditions are met:
+
+* Redistributions of source code must retain the
+  above copyright notice, this list of conditions
+  and the following disclaimer.
+* Redistributions in binary form must reproduce the
+  above copyright notice, this list of conditions
+  and the following disclaimer in the documentation
+  and/or other materials provided with the
+  distribution.
+* Neither the name of the OrangeCow organization
+  nor the names of its contributors may be used to
+  endorse or promote products derived from this
+  software without specific prior written
+  permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS
+AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF
+THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+POSSIBILITY OF SUCH DAMAGE.
+
+Contact information:
+Please visit http://ocvolume.sourceforge.net.
+*/
+
+package org.oc.ocvolume.dsp;
+
+/**
+ * <b>description:</b> radix-4 FFT backend (radix-2<sup>2</sup> decimation in frequency). Two radix-2 stages are
+ * done in one pass over the data, the multiplication by -i between them is free, so a group of 4 points needs
+ * 3 twiddle multiplications instead of 4 and the data is read half as often. When log2(N) is odd one radix-2
+ * stage without multiplications is added. The result is bit reversed, which is undone at the end.<br>
+ * <b>calls:</b> fftPlan<br>
+ * <b>called by:</b> fftBackend<br>
+ * <b>input:</b> complex signals<br>
+ * <b>output:</b> DFT of the signals
+ * @author Danny Su
+ */
+public class radix4Fft extends fftBackend{
+    /**
+     * bit reversal permutation
+     */
+    private final int bitReverse[];
+    /**
+     * cos(2 * pi * m / numPoints)
+     */
+    private final double cosTable[];
+    /**
+     * sin(2 * pi * m / numPoints)
+     */
+    private final double sinTable[];
+    /**
+     * constructor<br>
+     * calls: fftPlan<br>
+     * called by: fftBackend
+     * @param n number of points (must be a power of 2)
+     */
+    public radix4Fft(int n){
+        super(n);
+        bitReverse = fftPlan.forSize(n).bitReverse;
+
+        // twiddle factors up to 3/4 of the circle are needed
+        cosTable = new double[n];
+        sinTable = new double[n];
+        for (int m = 0; m < n; m++){
+            cosTable[m] = Math.cos(2 * Math.PI * m / n);
+            sinTable[m] = Math.sin(2 * Math.PI * m / n);
+        }
+    }
+
+    public String getName(){
+        return "radix4";
+    }
+
+    public void transform(double re[], double im[], int lanes){
+        int span = numPoints;
+
+        for (; span >= 4; span >>= 2){
+            int q = span >> 2;
+            int step = numPoints / span;
+
+            for (int start = 0; start < numPoints; start += span){
+                for (int j = 0; j < q; j++){
+                    int i0 = (start + j) * lanes;
+                    int i1 = i0 + q * lanes;
+                    int i2 = i1 + q * lanes;
+                    int i3 = i2 + q * lanes;
+
+                    // W^j, W^2j and W^3j with W = exp(-2 * pi * i / span)
+                    double c1 = cosTable[j * step];
+                    double s1 = -sinTable[j * step];
+                    double c2 = cosTable[2 * j * step];
+                    double s2 = -sinTable[2 * j * step];
+                    double c3 = cosTable[3 * j * step];
+                    double s3 = -sinTable[3 * j * step];
+
+                    for (int l = 0; l < lanes; l++){
+                        double x0r = re[i0 + l], x0i = im[i0 + l];
+                        double x1r = re[i1 + l], x1i = im[i1 + l];
+                        double x2r = re[i2 + l], x2i = im[i2 + l];
+                        double x3r = re[i3 + l], x3i = im[i3 + l];
+
+                        double ar = x0r + x2r, ai = x0i + x2i;
+                        double br = x1r + x3r, bi = x1i + x3i;
+                        double cr = x0r - x2r, ci = x0i - x2i;
+                        // (x1 - x3) * -i
+                        double dr = x1i - x3i, di = x3r - x1r;
+
+                        re[i0 + l] = ar + br;
+                        im[i0 + l] = ai + bi;
+
+                        double tr = ar - br, ti = ai - bi;
+                        re[i1 + l] = tr * c2 - ti * s2;
+                        im[i1 + l] = tr * s2 + ti * c2;
+
+                        tr = cr + dr;
+                        ti = ci + di;
+                        re[i2 + l] = tr * c1 - ti * s1;
+                        im[i2 + l] = tr * s1 + ti * c1;
+
+                        tr = cr - dr;
+                        ti = ci - di;
+                        re[i3 + l] = tr * c3 - ti * s3;
+                        im[i3 + l] = tr * s3 + ti * c3;
+                    }
+                }
+            }
+        }
+
+        // last radix-2 stage when log2(numPoints) is odd, all twiddle factors are 1
+        if (span == 2){
+            for (int start = 0; start < numPoints; start += 2){
+                int top = start * lanes;
+                int bottom = top + lanes;
+                for (int l = 0; l < lanes; l++){
+                    double ar = re[top + l], ai = im[top + l];
+                    re[top + l] = ar + re[bottom + l];
+                    im[top + l] = ai + im[bottom + l];
+                    re[bottom + l] = ar - re[bottom + l];
+                    im[bottom + l] = ai - im[bottom + l];
+                }
+            }
+        }
+
+        // bit reversed to natural order
+        for (int i = 0; i < numPoints; i++){
+            int j = bitReverse[i];
+            if (i < j){
+                for (int l = 0; l < lanes; l++){
+                    double temp = re[i * lanes + l];
+                    re[i * lanes + l] = re[j * lanes + l];
+                    re[j * lanes + l] = temp;
+                    temp = im[i * lanes + l];
+                    im[i * lanes + l] = im[j * lanes + l];
+                    im[j * lanes + l] = temp;
+                }
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,238 @@
+/*
+OC Volume - Java Speech Recognition Engine
+Copyright (c) 2002-2004, OrangeCow organization
+All rights reserved.
+
+Redistribution and use in source and binary forms,
+with or without modification, are permitted provided
+that the following conditions are met:
+
+* Redistributions of source code must retain the
+  above copyright notice, this list of conditions
+  and the following disclaimer.
+* Redistributions in binary form must reproduce the
+  above copyright notice, this list of conditions
+  and the following disclaimer in the documentation
+  and/or other materials provided with the
+  distribution.
+* Neither the name of the OrangeCow organization
+  nor the names of its contributors may be used to
+  endorse or promote products derived from this
+  software without specific prior written
+  permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS
+AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF
+THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+POSSIBILITY OF SUCH DAMAGE.
+
+Contact information:
+Please visit http://ocvolume.sourceforge.net.
+*/
+
+package org.oc.ocvolume.dsp;
+
+import java.util.Hashtable;
+
+/**
+ * <b>description:</b> FFT for real signals. The N real samples are packed into an N/2 point complex transform,
+ * and only the N/2+1 unique bins of the spectrum are returned. The complex transform is the fftBackend chosen for
+ * its size and the split tables are shared, the working buffers belong to the instance, so each thread should use its
+ * own instance.<br>
+ * <b>calls:</b> fftBackend<br>
+ * <b>called by:</b> featureExtraction<br>
+ * <b>input:</b> real signal<br>
+ * <b>output:</b> real and imaginary part of the first N/2+1 bins of the DFT
+ * @author Danny Su
+ */
+public class realFft{
+    /**
+     * shared split tables, keyed by number of points
+     */
+    private static Hashtable cache = new Hashtable();
+    /**
+     * number of real points
+     */
+    protected final int numPoints;
+    /**
+     * number of complex points (numPoints / 2)
+     */
+    protected final int half;
+    /**
+     * numPoints / 2 point complex transform
+     */
+    private final fftBackend backend;
+    /**
+     * cos(2 * pi * k / numPoints) used to split the complex result into the real spectrum
+     */
+    private final double splitCos[];
+    /**
+     * sin(2 * pi * k / numPoints) used to split the complex result into the real spectrum
+     */
+    private final double splitSin[];
+    /**
+     * real part of the complex transform
+     */
+    private double re[];
+    /**
+     * imaginary part of the complex transform
+     */
+    private double im[];
+    /**
+     * real part of the interleaved complex transforms of transformBatch
+     */
+    private double batchRe[] = new double[0];
+    /**
+     * imaginary part of the interleaved complex transforms of transformBatch
+     */
+    private double batchIm[] = new double[0];
+    /**
+     * constructor to create a real FFT of the given size<br>
+     * calls: fftBackend<br>
+     * called by: featureExtraction
+     * @param n number of points (must be a power of 2 and at least 4)
+     */
+    public realFft(int n){
+        if (n < 4 || (n & (n - 1)) != 0){
+            throw new IllegalArgumentException("FFT size must be a power of 2 and at least 4: " + n);
+        }
+
+        numPoints = n;
+        half = n / 2;
+        backend = fftBackend.forSize(half);
+
+        double split[][];
+        synchronized (cache){
+            split = (double[][])cache.get(Integer.valueOf(n));
+            if (split == null){
+                // twiddle factors of the split step
+                split = new double[2][half + 1];
+                for (int k = 0; k <= half; k++){
+                    split[0][k] = Math.cos(2 * Math.PI * k / numPoints);
+                    split[1][k] = Math.sin(2 * Math.PI * k / numPoints);
+                }
+                cache.put(Integer.valueOf(n), split);
+            }
+        }
+        splitCos = split[0];
+        splitSin = split[1];
+
+        re = new double[half];
+        im = new double[half];
+    }
+    /**
+     * returns the number of points<br>
+     * calls: none<br>
+     * called by: featureExtraction
+     * @return number of real input points
+     */
+    public int getSize(){
+        return numPoints;
+    }
+    /**
+     * performs the Fast Fourier Transformation of a real signal<br>
+     * calls: fftBackend<br>
+     * called by: featureExtraction
+     * @param signal input signal with numPoints samples, it is not modified
+     * @param outReal real part of bins 0 to numPoints / 2 (numPoints / 2 + 1 values)
+     * @param outImag imaginary part of bins 0 to numPoints / 2 (numPoints / 2 + 1 values)
+     */
+    public void transform(double signal[], double outReal[], double outImag[]){
+        // pack even samples into the real part and odd samples into the imaginary part
+        for (int i = 0; i < half; i++){
+            re[i] = signal[2 * i];
+            im[i] = signal[2 * i + 1];
+        }
+
+        backend.transform(re, im, 1);
+        // split the complex result into the spectrum of the real signal
+        for (int k = 0; k <= half; k++){
+            int k1 = (k == half) ? 0 : k;
+            int k2 = (k == 0) ? 0 : half - k;
+
+            double a = re[k1];
+            double b = im[k1];
+            double c = re[k2];
+            double d = im[k2];
+
+            // even and odd part of the spectrum
+            double evenReal = 0.5 * (a + c);
+            double evenImag = 0.5 * (b - d);
+            double oddReal = 0.5 * (b + d);
+            double oddImag = -0.5 * (a - c);
+
+            // multiply odd part by exp(-2 * pi * i * k / numPoints)
+            double cs = splitCos[k];
+            double sn = splitSin[k];
+            outReal[k] = evenReal + cs * oddReal + sn * oddImag;
+            outImag[k] = evenImag + cs * oddImag - sn * oddReal;
+        }
+    }
+    /**
+     * performs the Fast Fourier Transformation of several real signals at once<br>
+     * the complex transforms are interleaved (structure of arrays), so every butterfly stage runs over all signals
+     * with unit stride, and each signal gets exactly the same result as from transform()<br>
+     * calls: fftBackend<br>
+     * called by: featureExtraction
+     * @param signals signals of numPoints samples, not modified
+     * @param count number of signals to transform
+     * @param outReal real part, bin k of signal l at k * count + l ((numPoints / 2 + 1) * count values)
+     * @param outImag imaginary part, bin k of signal l at k * count + l ((numPoints / 2 + 1) * count values)
+     */
+    public void transformBatch(double signals[][], int count, double outReal[], double outImag[]){
+        if (batchRe.length < half * count){
+            batchRe = new double[half * count];
+            batchIm = new double[half * count];
+        }
+        double re[] = batchRe;
+        double im[] = batchIm;
+
+        // pack even samples into the real part and odd samples into the imaginary part
+        for (int l = 0; l < count; l++){
+            double signal[] = signals[l];
+            for (int i = 0; i < half; i++){
+                re[i * count + l] = signal[2 * i];
+                im[i * count + l] = signal[2 * i + 1];
+            }
+        }
+
+        backend.transform(re, im, count);
+
+        // split the complex results into the spectra of the real signals
+        for (int k = 0; k <= half; k++){
+            int k1 = ((k == half) ? 0 : k) * count;
+            int k2 = ((k == 0) ? 0 : half - k) * count;
+            double cs = splitCos[k];
+            double sn = splitSin[k];
+
+            for (int l = 0; l < count; l++){
+                double a = re[k1 + l];
+                double b = im[k1 + l];
+                double c = re[k2 + l];
+                double d = im[k2 + l];
+
+                // even and odd part of the spectrum
+                double evenReal = 0.5 * (a + c);
+                double evenImag = 0.5 * (b - d);
+                double oddReal = 0.5 * (b + d);
+                double oddImag = -0.5 * (a - c);
+
+                // multiply odd part by exp(-2 * pi * i * k / numPoints)
+                outReal[k * count + l] = evenReal + cs * oddReal + sn * oddImag;
+                outImag[k * count + l] = evenImag + cs * oddImag - sn * oddReal;
+            }
+        }
+    }
+}
\ No newline at end of file
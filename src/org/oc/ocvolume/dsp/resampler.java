@@ -0,0 +1,383 @@
+/*
+OC Volume - Java Speech Recognition Engine
+Copyright (c) 2002-2004, OrangeCow organization
+All rights reserved.
+
+Redistribution and use in source and binary forms,
+with or without modification, are permitted provided
+that the following conditions are met:
+
+* Redistributions of source code must retain the
+  above copyright notice, this list of conditions
+  and the following disclaimer.
+* Redistributions in binary form must reproduce the
+  above copyright notice, this list of conditions
+  and the following disclaimer in the documentation
+  and/or other materials provided with the
+  distribution.
+* Neither the name of the OrangeCow organization
+  nor the names of its contributors may be used to
+  endorse or promote products derived from this
+  software without specific prior written
+  permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS
+AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF
+THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+POSSIBILITY OF SUCH DAMAGE.
+
+Contact information:
+Please visit http://ocvolume.sourceforge.net.
+*/
+
+package org.oc.ocvolume.dsp;
+
+import java.util.Hashtable;
+
+/**
+ * <b>description:</b> streaming polyphase resampler, converts a signal from one sampling rate to another by a
+ * rational factor L/M with a windowed sinc low-pass filter. The filter of every phase is computed once per rate
+ * pair and shared. Input can be given in chunks of any size, only the last few input samples are kept between
+ * chunks, so the memory used does not grow with the length of the input. Each thread should use its own
+ * instance.<br>
+ * <b>calls:</b> none<br>
+ * <b>called by:</b> waveIO, batchExtraction<br>
+ * <b>input:</b> speech signal at the source rate<br>
+ * <b>output:</b> speech signal at the target rate
+ * @author Danny Su
+ */
+public class resampler{
+    /**
+     * shared filter tables, keyed by "L/M"
+     */
+    private static Hashtable cache = new Hashtable();
+    /**
+     * number of zero crossings of the sinc on each side of the center
+     */
+    private final static int ZERO_CROSSINGS = 16;
+    /**
+     * source sampling rate
+     */
+    protected final int inputRate;
+    /**
+     * target sampling rate
+     */
+    protected final int outputRate;
+    /**
+     * interpolation factor, outputRate / gcd
+     */
+    protected final int up;
+    /**
+     * decimation factor, inputRate / gcd
+     */
+    protected final int down;
+    /**
+     * number of filter taps per phase (even)
+     */
+    protected final int taps;
+    /**
+     * filter of each phase, filter[p][k] is applied to input sample base - taps / 2 + 1 + k
+     */
+    private final double filter[][];
+    /**
+     * input samples kept between chunks
+     */
+    private double buffer[];
+    /**
+     * absolute index of buffer[0] in the input
+     */
+    private long bufferStart;
+    /**
+     * number of valid samples in buffer
+     */
+    private int bufferLength;
+    /**
+     * number of input samples given so far
+     */
+    private long inputCount;
+    /**
+     * absolute index of the next output sample
+     */
+    private long outputCount;
+    /**
+     * constructor<br>
+     * calls: none<br>
+     * called by: volume, waveIO
+     * @param inputRate source sampling rate in Hz
+     * @param outputRate target sampling rate in Hz
+     */
+    public resampler(int inputRate, int outputRate){
+        if (inputRate <= 0 || outputRate <= 0){
+            throw new IllegalArgumentException("sampling rates must be positive");
+        }
+        this.inputRate = inputRate;
+        this.outputRate = outputRate;
+
+        int g = gcd(inputRate, outputRate);
+        up = outputRate / g;
+        down = inputRate / g;
+
+        // below 1 when decimating, so the filter also removes what would alias
+        double scale = Math.min(1.0, (double)up / down);
+        taps = 2 * (int)Math.ceil(ZERO_CROSSINGS / scale);
+
+        String key = up + "/" + down;
+        synchronized (cache){
+            double shared[][] = (double[][])cache.get(key);
+            if (shared == null){
+                shared = design(up, taps, scale);
+                cache.put(key, shared);
+            }
+            filter = shared;
+        }
+
+        buffer = new double[2 * taps];
+        reset();
+    }
+    /**
+     * forget the input given so far, to start a new signal<br>
+     * calls: none<br>
+     * called by: volume, waveIO
+     */
+    public void reset(){
+        // the signal is zero before its first sample
+        bufferStart = -(taps / 2 - 1);
+        bufferLength = taps / 2 - 1;
+        for (int i = 0; i < bufferLength; i++){
+            buffer[i] = 0;
+        }
+        inputCount = 0;
+        outputCount = 0;
+    }
+    /**
+     * returns the largest number of output samples a call to process can produce<br>
+     * calls: none<br>
+     * called by: volume, waveIO
+     * @param inputLength number of input samples in the call
+     * @return size of output array needed
+     */
+    public int getMaxOutput(int inputLength){
+        return (int)(((long)inputLength + taps) * up / down) + 1;
+    }
+    /**
+     * resample the next chunk of the signal<br>
+     * calls: none<br>
+     * called by: volume, waveIO
+     * @param input input samples
+     * @param offset index of the first sample to use
+     * @param length number of samples to use
+     * @param output receives the output samples, must hold at least getMaxOutput(length) samples
+     * @return number of output samples written
+     */
+    public int process(short input[], int offset, int length, short output[]){
+        append(input, offset, length);
+        inputCount += length;
+        return produce(output, Long.MAX_VALUE);
+    }
+    /**
+     * resample the next chunk of the signal<br>
+     * calls: none<br>
+     * called by: volume, waveIO
+     * @param input input samples
+     * @return output samples
+     */
+    public short[] process(short input[]){
+        short output[] = new short[getMaxOutput(input.length)];
+        return trim(output, process(input, 0, input.length, output));
+    }
+    /**
+     * returns the output samples that still depend on samples after the end of the input, then resets<br>
+     * calls: none<br>
+     * called by: volume, waveIO
+     * @param output receives the output samples, must hold at least getMaxOutput(0) samples
+     * @return number of output samples written
+     */
+    public int finish(short output[]){
+        // zeros after the end of the signal
+        short zeros[] = new short[taps];
+        append(zeros, 0, zeros.length);
+
+        long total = (inputCount * up + down - 1) / down;
+        int written = produce(output, total);
+        reset();
+        return written;
+    }
+    /**
+     * returns the output samples that still depend on samples after the end of the input, then resets<br>
+     * calls: none<br>
+     * called by: volume, waveIO
+     * @return output samples
+     */
+    public short[] finish(){
+        short output[] = new short[getMaxOutput(0)];
+        return trim(output, finish(output));
+    }
+    /**
+     * resample a whole signal<br>
+     * calls: none<br>
+     * called by: volume, waveIO
+     * @param signal input signal
+     * @param inputRate source sampling rate in Hz
+     * @param outputRate target sampling rate in Hz
+     * @return signal at the target rate
+     */
+    public static short[] resample(short signal[], int inputRate, int outputRate){
+        if (inputRate == outputRate){
+            return signal;
+        }
+        resampler r = new resampler(inputRate, outputRate);
+        short body[] = r.process(signal);
+        short tail[] = r.finish();
+
+        short output[] = new short[body.length + tail.length];
+        System.arraycopy(body, 0, output, 0, body.length);
+        System.arraycopy(tail, 0, output, body.length, tail.length);
+        return output;
+    }
+    /**
+     * returns the source sampling rate<br>
+     * calls: none<br>
+     * called by: volume
+     * @return sampling rate in Hz
+     */
+    public int getInputRate(){
+        return inputRate;
+    }
+    /**
+     * returns the target sampling rate<br>
+     * calls: none<br>
+     * called by: volume
+     * @return sampling rate in Hz
+     */
+    public int getOutputRate(){
+        return outputRate;
+    }
+    /**
+     * computes the output samples whose filter lies inside the buffer, then drops the input no longer needed<br>
+     * calls: none<br>
+     * called by: resampler
+     * @param output receives the output samples
+     * @param limit absolute index of the first output sample not to produce
+     * @return number of output samples written
+     */
+    private int produce(short output[], long limit){
+        int written = 0;
+        int half = taps / 2;
+        long bufferEnd = bufferStart + bufferLength;
+
+        while (outputCount < limit){
+            long position = outputCount * down;
+            long base = position / up;
+            if (base + half >= bufferEnd){
+                break;
+            }
+            double coeffs[] = filter[(int)(position - base * up)];
+            int first = (int)(base - half + 1 - bufferStart);
+
+            double sum = 0;
+            for (int k = 0; k < taps; k++){
+                sum += coeffs[k] * buffer[first + k];
+            }
+
+            long value = Math.round(sum);
+            output[written++] = (short)(value > Short.MAX_VALUE ? Short.MAX_VALUE : (value < Short.MIN_VALUE ? Short.MIN_VALUE : value));
+            outputCount++;
+        }
+
+        // keep from the first sample the next output needs
+        long keep = (outputCount * down) / up - half + 1;
+        int drop = (int)Math.max(0, Math.min(bufferLength, keep - bufferStart));
+        System.arraycopy(buffer, drop, buffer, 0, bufferLength - drop);
+        bufferLength -= drop;
+        bufferStart += drop;
+
+        return written;
+    }
+    /**
+     * adds input samples to the end of the buffer<br>
+     * calls: none<br>
+     * called by: resampler
+     */
+    private void append(short input[], int offset, int length){
+        if (bufferLength + length > buffer.length){
+            double grown[] = new double[Math.max(bufferLength + length, 2 * buffer.length)];
+            System.arraycopy(buffer, 0, grown, 0, bufferLength);
+            buffer = grown;
+        }
+        for (int i = 0; i < length; i++){
+            buffer[bufferLength + i] = input[offset + i];
+        }
+        bufferLength += length;
+    }
+    /**
+     * computes the filter of every phase<br>
+     * calls: none<br>
+     * called by: resampler
+     * @param phases number of phases (interpolation factor)
+     * @param taps taps per phase
+     * @param scale cutoff relative to the input Nyquist frequency
+     * @return filter[p][k]
+     */
+    private static double[][] design(int phases, int taps, double scale){
+        double filter[][] = new double[phases][taps];
+        int half = taps / 2;
+
+        for (int p = 0; p < phases; p++){
+            double sum = 0;
+            for (int k = 0; k < taps; k++){
+                // distance from the output position to input sample k, in input samples
+                double t = (k - half + 1) - (double)p / phases;
+                double x = Math.PI * scale * t;
+                double sinc = (t == 0) ? 1.0 : Math.sin(x) / x;
+                // Blackman window over (-half, half)
+                double w = 0.42 + 0.5 * Math.cos(Math.PI * t / half) + 0.08 * Math.cos(2 * Math.PI * t / half);
+                filter[p][k] = scale * sinc * w;
+                sum += filter[p][k];
+            }
+            // unity gain at DC for every phase
+            for (int k = 0; k < taps; k++){
+                filter[p][k] /= sum;
+            }
+        }
+
+        return filter;
+    }
+    /**
+     * greatest common divisor<br>
+     * calls: none<br>
+     * called by: resampler
+     */
+    private static int gcd(int a, int b){
+        while (b != 0){
+            int t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+    /**
+     * returns the first length samples of an array<br>
+     * calls: none<br>
+     * called by: resampler
+     */
+    private static short[] trim(short array[], int length){
+        if (length == array.length){
+            return array;
+        }
+        short result[] = new short[length];
+        System.arraycopy(array, 0, result, 0, length);
+        return result;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,98 @@
+/*
+OC Volume - Java Speech Recognition Engine
+Copyright (c) 2002-2004, OrangeCow organization
+All rights reserved.
+
+Redistribution and use in source and binary forms,
+with or without modification, are permitted provided
+that the following conditions are met:
+
+* Redistributions of source code must retain the
+  above copyright notice, this list of conditions
+  and the following disclaimer.
+* Redistributions in binary form must reproduce the
+  above copyright notice, this list of conditions
+  and the following disclaimer in the documentation
+  and/or other materials provided with the
+  distribution.
+* Neither the name of the OrangeCow organization
+  nor the names of its contributors may be used to
+  endorse or promote products derived from this
+  software without specific prior written
+  permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS
+AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF
+THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+POSSIBILITY OF SUCH DAMAGE.
+
+Contact information:
+Please visit http://ocvolume.sourceforge.net.
+*/
+
+package org.oc.ocvolume.dsp;
+
+/**
+ * <b>description:</b> plain Java loops for the feature extraction kernels, they give the same results as the
+ * original featureExtraction code<br>
+ * <b>calls:</b> none<br>
+ * <b>called by:</b> dspKernels<br>
+ * <b>input:</b> arrays<br>
+ * <b>output:</b> arrays
+ * @author Danny Su
+ */
+public class scalarKernels extends dspKernels{
+    public String getName(){
+        return "scalar";
+    }
+
+    public void preEmphasisWindow(short signal[], int start, double alpha, double window[], double out[], int from, int to){
+        for (int n = from; n < to; n++){
+            int i = start + n;
+            out[n] = (signal[i] - alpha * signal[i - 1]) * window[n];
+        }
+    }
+
+    public void multiply(double a[], double b[], double out[], int length){
+        for (int n = 0; n < length; n++){
+            out[n] = a[n] * b[n];
+        }
+    }
+
+    public void magnitude(double re[], double im[], double out[], int length){
+        for (int k = 0; k < length; k++){
+            out[k] = Math.sqrt(re[k] * re[k] + im[k] * im[k]);
+        }
+    }
+
+    public double dot(double a[], int aOffset, double b[], int bOffset, int length){
+        double sum = 0;
+        for (int i = 0; i < length; i++){
+            sum += a[aOffset + i] * b[bOffset + i];
+        }
+        return sum;
+    }
+
+    public void butterfly(double re[], double im[], int top, int bottom, int lanes, double ur, double ui){
+        for (int l = 0; l < lanes; l++){
+            double tempReal = re[bottom + l] * ur - im[bottom + l] * ui;
+            double tempImag = re[bottom + l] * ui + im[bottom + l] * ur;
+            re[bottom + l] = re[top + l] - tempReal;
+            im[bottom + l] = im[top + l] - tempImag;
+            re[top + l] += tempReal;
+            im[top + l] += tempImag;
+        }
+    }
+}
\ No newline at end of file
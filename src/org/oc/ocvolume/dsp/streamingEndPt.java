@@ -0,0 +1,504 @@
+/*
+OC Volume - Java Speech Recognition Engine
+Copyright (c) 2002-2004, OrangeCow organization
+All rights reserved.
+
+Redistribution and use in source and binary forms,
+with or without modification, are permitted provided
+that the following conditions are met:
+
+* Redistributions of source code must retain the
+  above copyright notice, this list of conditions
+  and the following disclaimer.
+* Redistributions in binary form must reproduce the
+  above copyright notice, this list of conditions
+  and the following disclaimer in the documentation
+  and/or other materials provided with the
+  distribution.
+* Neither the name of the OrangeCow organization
+  nor the names of its contributors may be used to
+  endorse or promote products derived from this
+  software without specific prior written
+  permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS
+AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF
+THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+POSSIBILITY OF SUCH DAMAGE.
+
+Contact information:
+Please visit http://ocvolume.sourceforge.net.
+*/
+
+package org.oc.ocvolume.dsp;
+
+/**
+ * <b>description:</b> frame by frame version of endPt, for endpoint detection while the audio is being captured.
+ * The signal is pushed one 5ms frame (80 samples) at a time and start-of-speech and end-of-speech events are
+ * returned as soon as they are known.<br>
+ * Like endPt, the first 20 frames of the stream are taken as noise and give the energy and zero-crossing
+ * thresholds. After that a noiseFloor follows the background noise and the thresholds with it, so a long stream
+ * where the room noise changes keeps working. The start of speech is searched exactly like endPt.avgEnergy and endPt.zeroCrossing do, and is
+ * reported 17 frames (85ms) after the frame where it was found. endPt searches the end backwards from the end of
+ * the signal, which is not possible on a stream, so the last frame that passes the same test (over the threshold
+ * and 13 of the 16 frames before it too) is kept. The end is reported once END_HANGOVER frames have passed
+ * without another such frame, then refined with the same valley and zero-crossing search as endPt. The next
+ * utterance is searched from there on. Only the last HISTORY frames are kept, so memory does not grow with the
+ * length of the stream. An utterance can be limited to a maximum length, it then ends without refinement when it
+ * gets that long.<br>
+ * <b>calls:</b> noiseFloor<br>
+ * <b>called by:</b> volume, waveSegmenter<br>
+ * <b>input:</b> 5ms frames of speech signal<br>
+ * <b>output:</b> start and end of the utterances
+ * @author Keith Fung
+ */
+public class streamingEndPt{
+    /**
+     * the number of samples for 5ms frame
+     */
+    public final static int FRAME_SIZE = endPt.frameSize;
+    /**
+     * no event
+     */
+    public final static int NONE = 0;
+    /**
+     * start of speech, see getStart
+     */
+    public final static int SPEECH_START = 1;
+    /**
+     * end of speech, see getEnd
+     */
+    public final static int SPEECH_END = 2;
+    /**
+     * number of frames (200ms) without speech before the end of an utterance is reported
+     */
+    public final static int END_HANGOVER = 40;
+    /**
+     * number of frames kept, enough for every search window
+     */
+    private final static int HISTORY = 64;
+    /**
+     * number of frames at the start of the stream used as noise
+     */
+    private final static int NOISE_FRAMES = 20;
+    /**
+     * number of frames (3s) of the minimum statistics window of the noise level
+     */
+    private final static int NOISE_WINDOW = 600;
+    /**
+     * smoothing of the noise level for each frame, about 250ms
+     */
+    private final static double NOISE_SMOOTHING = 0.98;
+    /**
+     * energy of the last frames, frame f at f % HISTORY
+     */
+    private double energyFrame[] = new double[HISTORY];
+    /**
+     * number of zero-crossings of the last frames, frame f at f % HISTORY
+     */
+    private int crossingCount[] = new int[HISTORY];
+    /**
+     * number of frames received
+     */
+    private int numFrames = 0;
+    /**
+     * last sample of the previous frame
+     */
+    private short lastSample = 0;
+    /**
+     * background noise level
+     */
+    private noiseFloor noise = new noiseFloor(NOISE_FRAMES, NOISE_WINDOW, NOISE_SMOOTHING);
+    /**
+     * energy threshold, set after the noise frames
+     */
+    private double noiseEnergyThreshold = 0;
+    /**
+     * zero-crossing rate threshold, set after the noise frames
+     */
+    private double IZCT = 0;
+    /**
+     * true between a start and an end event
+     */
+    private boolean inSpeech = false;
+    /**
+     * next frame to test as start of speech
+     */
+    private int searchFrom = NOISE_FRAMES;
+    /**
+     * the cuts never go before this frame, the end of the noise frames or of the previous utterance
+     */
+    private int floor = NOISE_FRAMES;
+    /**
+     * last frame that passed the end test
+     */
+    private int lastCandidate = 0;
+    /**
+     * maximum number of frames of an utterance, 0 for no limit
+     */
+    private int maxFrames = 0;
+    /**
+     * first frame of the last utterance
+     */
+    private int startCut = 0;
+    /**
+     * frame after the last utterance
+     */
+    private int endCut = 0;
+    /**
+     * constructor<br>
+     * calls: none<br>
+     * called by: volume
+     */
+    public streamingEndPt(){
+    }
+    /**
+     * adds the next frame of the stream<br>
+     * calls: none<br>
+     * called by: volume
+     * @param sample speech signal
+     * @param offset position of the FRAME_SIZE samples of the frame in sample
+     * @return NONE, or SPEECH_START and/or SPEECH_END (the end of an utterance comes before the start of the next)
+     */
+    public int addFrame(short sample[], int offset){
+        int f = numFrames;
+        int slot = f % HISTORY;
+
+        // the crossing between two frames belongs to the first one, which is complete now
+        if (f > 0 && crosses(lastSample, sample[offset])){
+            crossingCount[(f - 1) % HISTORY]++;
+        }
+
+        double runningSum = 0;
+        int crossings = 0;
+        for (int d = offset; d < offset + FRAME_SIZE; d++){
+            runningSum += (sample[d] * sample[d]);
+            if (d < offset + FRAME_SIZE - 1 && crosses(sample[d], sample[d + 1])){
+                crossings++;
+            }
+        }
+        energyFrame[slot] = runningSum / FRAME_SIZE;
+        crossingCount[slot] = crossings;
+        lastSample = sample[offset + FRAME_SIZE - 1];
+        numFrames++;
+
+        if (f == 0){
+            return NONE;
+        }
+        return frameComplete(f - 1, f - 1);
+    }
+    /**
+     * ends the stream, an utterance that has not ended yet ends at the last frame<br>
+     * call reset before using the detector for another stream<br>
+     * calls: none<br>
+     * called by: volume
+     * @return NONE, or SPEECH_START and/or SPEECH_END
+     */
+    public int finish(){
+        if (numFrames == 0){
+            return NONE;
+        }
+        int newest = numFrames - 1;
+        int event = frameComplete(newest, newest);
+        if (inSpeech){
+            endUtterance(newest);
+            event |= SPEECH_END;
+        }
+        return event;
+    }
+    /**
+     * forgets the stream, the next frame is the first frame of a new stream<br>
+     * calls: none<br>
+     * called by: volume
+     */
+    public void reset(){
+        numFrames = 0;
+        lastSample = 0;
+        noise.reset();
+        noiseEnergyThreshold = 0;
+        IZCT = 0;
+        inSpeech = false;
+        searchFrom = NOISE_FRAMES;
+        floor = NOISE_FRAMES;
+        lastCandidate = 0;
+        startCut = 0;
+        endCut = 0;
+    }
+    /**
+     * limits the length of the utterances, a longer utterance ends after maxFrames frames and the search for the
+     * start of speech goes on from there<br>
+     * calls: none<br>
+     * called by: volume, waveSegmenter
+     * @param maxFrames maximum number of frames of an utterance, 0 for no limit
+     */
+    public void setMaxFrames(int maxFrames){
+        this.maxFrames = maxFrames;
+    }
+    /**
+     * returns whether the stream is inside an utterance<br>
+     * calls: none<br>
+     * called by: volume
+     * @return true after a start event and before the matching end event
+     */
+    public boolean inSpeech(){
+        return inSpeech;
+    }
+    /**
+     * returns the start of the last utterance<br>
+     * calls: none<br>
+     * called by: volume
+     * @return position of the first sample, counted from the start of the stream
+     */
+    public long getStart(){
+        return (long)startCut * FRAME_SIZE;
+    }
+    /**
+     * returns the end of the last utterance<br>
+     * calls: none<br>
+     * called by: volume
+     * @return position after the last sample, counted from the start of the stream
+     */
+    public long getEnd(){
+        return (long)endCut * FRAME_SIZE;
+    }
+    /**
+     * returns the estimate of the background noise<br>
+     * calls: none<br>
+     * called by: volume
+     * @return noise level of the stream
+     */
+    public noiseFloor getNoiseFloor(){
+        return noise;
+    }
+    /**
+     * returns the number of samples received<br>
+     * calls: none<br>
+     * called by: volume
+     * @return number of samples
+     */
+    public long getPosition(){
+        return (long)numFrames * FRAME_SIZE;
+    }
+    /**
+     * runs the searches once a frame has all its zero-crossings<br>
+     * calls: none<br>
+     * called by: addFrame, finish
+     * @param f frame that is complete
+     * @param newest last complete frame the searches may look at
+     * @return events found
+     */
+    private int frameComplete(int f, int newest){
+        noise.update(energyFrame[f % HISTORY], crossingRate(f));
+        if (!noise.isReady()){
+            return NONE;
+        }
+        noiseEnergyThreshold = noise.getEnergy() * 1.95;
+        IZCT = noise.getCrossingThreshold();
+        if (f < NOISE_FRAMES){
+            return NONE;
+        }
+
+        int event = NONE;
+        if (inSpeech){
+            if (isEndCandidate(f)){
+                lastCandidate = f;
+            }
+            if (f - lastCandidate >= END_HANGOVER){
+                endUtterance(newest);
+                event |= SPEECH_END;
+            }
+            else if (maxFrames > 0 && f + 1 - startCut >= maxFrames){
+                endAt(f + 1);
+                event |= SPEECH_END;
+            }
+        }
+        if (!inSpeech && searchStart(newest)){
+            event |= SPEECH_START;
+        }
+        return event;
+    }
+    /**
+     * tests the frames that have 16 frames after them for the start of speech, like endPt.avgEnergy<br>
+     * calls: none<br>
+     * called by: frameComplete
+     * @param newest last complete frame
+     * @return true if speech started
+     */
+    private boolean searchStart(int newest){
+        while (searchFrom + 16 <= newest){
+            int location = searchFrom;
+            searchFrom++;
+
+            if (energyFrame[location % HISTORY] > noiseEnergyThreshold){
+                //cal the percentage of next consecutive 16 frames(80ms) are higher than the energy
+                int runningSum = 0;
+                for (int c = 1; c < 17; c++){
+                    if (energyFrame[(location + c) % HISTORY] > noiseEnergyThreshold){
+                        runningSum++;
+                    }
+                }
+                if (runningSum >= 13){
+                    startCut = findStartCut(location);
+                    inSpeech = true;
+
+                    // the frames already seen may be ends of the utterance
+                    lastCandidate = location;
+                    for (int t = location + 1; t <= newest; t++){
+                        if (isEndCandidate(t)){
+                            lastCandidate = t;
+                        }
+                    }
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+    /**
+     * valley search and zero-crossing search before the start of speech, like endPt.avgEnergy and
+     * endPt.zeroCrossing<br>
+     * calls: none<br>
+     * called by: searchStart
+     * @param location frame where the energy rises
+     * @return first frame of the utterance
+     */
+    private int findStartCut(int location){
+        //valley search
+        int cut = location;
+        int backwardLocation = 0;
+        while ((backwardLocation < 16) && ((location - backwardLocation) > floor)
+                && (energyFrame[(location - backwardLocation - 1) % HISTORY] < energyFrame[(location - backwardLocation) % HISTORY])){
+            cut = location - backwardLocation - 1;
+            backwardLocation++;
+        }
+
+        //search for a peak in 80 ms and compare with the threshold
+        location = Math.max(cut - 16, floor);
+        int crossingPeak = location;
+        while (location != cut){
+            if (crossingRate(crossingPeak) < crossingRate(location)){
+                crossingPeak = location;
+            }
+            location++;
+        }
+
+        if (IZCT < crossingRate(crossingPeak)){
+            cut = crossingPeak;
+            //find global min for the next 50ms
+            location = Math.max(cut - 10, floor);
+            crossingPeak = location;
+            while (location != cut){
+                if (crossingRate(crossingPeak) >= crossingRate(location)){
+                    crossingPeak = location;
+                }
+                location++;
+            }
+            cut = crossingPeak;
+        }
+        return cut;
+    }
+    /**
+     * tests if a frame can be the last frame of speech, the test endPt.avgEnergy uses from the end of the signal<br>
+     * calls: none<br>
+     * called by: frameComplete, searchStart
+     * @param location frame to test
+     * @return true if the frame and 13 of the 16 frames before it are over the threshold
+     */
+    private boolean isEndCandidate(int location){
+        if (energyFrame[location % HISTORY] <= noiseEnergyThreshold){
+            return false;
+        }
+        int runningSum = 0;
+        for (int c = 1; c < 17; c++){
+            if (energyFrame[(location - c) % HISTORY] > noiseEnergyThreshold){
+                runningSum++;
+            }
+        }
+        return runningSum >= 13;
+    }
+    /**
+     * valley search and zero-crossing search after the last candidate, like endPt.avgEnergy and
+     * endPt.zeroCrossing, then prepares the search for the next utterance<br>
+     * calls: endAt<br>
+     * called by: frameComplete, finish
+     * @param newest last complete frame, the searches stop there
+     */
+    private void endUtterance(int newest){
+        int location = lastCandidate;
+
+        //valley search
+        int cut = location;
+        int forwardLocation = 0;
+        while ((forwardLocation < 16) && ((location + forwardLocation) < newest)
+                && (energyFrame[(location + forwardLocation + 1) % HISTORY] < energyFrame[(location + forwardLocation) % HISTORY])){
+            cut = location + forwardLocation + 1;
+            forwardLocation++;
+        }
+
+        //ending peak search for 80ms
+        location = Math.min(cut + 16, newest);
+        int crossingPeak = location;
+        while (location != cut){
+            if (crossingRate(crossingPeak) < crossingRate(location)){
+                crossingPeak = location;
+            }
+            location--;
+        }
+
+        if (IZCT < crossingRate(crossingPeak)){
+            cut = crossingPeak;
+            //find global min for the next 50ms
+            location = Math.min(cut + 10, newest);
+            crossingPeak = location;
+            while (location != cut){
+                if (crossingRate(crossingPeak) >= crossingRate(location)){
+                    crossingPeak = location;
+                }
+                location--;
+            }
+            cut = crossingPeak;
+        }
+
+        endAt(Math.min(cut + 1, maxFrames > 0 ? startCut + maxFrames : Integer.MAX_VALUE));
+    }
+    /**
+     * ends the utterance and prepares the search for the next one<br>
+     * calls: none<br>
+     * called by: frameComplete, endUtterance
+     * @param cut frame after the last frame of the utterance
+     */
+    private void endAt(int cut){
+        endCut = cut;
+        inSpeech = false;
+        floor = endCut;
+        searchFrom = endCut;
+    }
+    /**
+     * zero-crossing rate of a frame<br>
+     * calls: none<br>
+     * called by: frameComplete, findStartCut, endUtterance
+     */
+    private double crossingRate(int frame){
+        return (double)crossingCount[frame % HISTORY] / FRAME_SIZE;
+    }
+    /**
+     * true if the signal changes sign between two samples<br>
+     * calls: none<br>
+     * called by: addFrame
+     */
+    private static boolean crosses(short a, short b){
+        return ((a > 0) && (b < 0)) || ((a < 0) && (b > 0));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,152 @@
+/*
+OC Volume - Java Speech Recognition Engine
+Copyright (c) 2002-2004, OrangeCow organization
+All rights reserved.
+
+Redistribution and use in source and binary forms,
+with or without modification, are permitted provided
+that the following conditions are met:
+
+* Redistributions of source code must retain the
+  above copyright notice, this list of conditions
+  and the following disclaimer.
+* Redistributions in binary form must reproduce the
+  above copyright notice, this list of conditions
+  and the following disclaimer in the documentation
+  and/or other materials provided with the
+  distribution.
+* Neither the name of the OrangeCow organization
+  nor the names of its contributors may be used to
+  endorse or promote products derived from this
+  software without specific prior written
+  permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS
+AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF
+THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+POSSIBILITY OF SUCH DAMAGE.
+
+Contact information:
+Please visit http://ocvolume.sourceforge.net.
+*/
+
+package org.oc.ocvolume.hmm;
+
+/**
+ * <b>description:</b> single precision copy of a trained left-to-right Hidden Markov Model used for recognition
+ * only. The logarithms of the probabilities are computed once, so Viterbi only adds and compares, and the output
+ * probabilities of all states for one symbol are stored next to each other.<br>
+ * <b>calls:</b> markov<br>
+ * <b>called by:</b> volume<br>
+ * <b>input:</b> sequence of integers<br>
+ * <b>output:</b> probability
+ * @author Danny Su
+ */
+public class floatMarkov{
+    /**
+     * number of states in the model
+     */
+    protected int num_states;
+    /**
+     * number of observation symbols per state
+     */
+    protected int num_symbols;
+    /**
+     * log of the initial state distribution
+     */
+    protected float logPi[];
+    /**
+     * log of the state transition probability, transition from i to j at i * num_states + j
+     */
+    protected float logTransition[];
+    /**
+     * log of the output probability, symbol k in state j at k * num_states + j
+     */
+    protected float logOutput[];
+    /**
+     * constructor to round a trained or loaded model to single precision<br>
+     * calls: none<br>
+     * called by: volume
+     * @param model double precision model
+     */
+    public floatMarkov(markov model){
+        num_states = model.num_states;
+        num_symbols = model.num_symbols;
+        logPi = new float[num_states];
+        logTransition = new float[num_states * num_states];
+        logOutput = new float[num_symbols * num_states];
+
+        for (int i = 0; i < num_states; i++){
+            double temp = model.pi[i];
+            if (temp == 0){
+                temp = model.MIN_PROBABILITY;
+            }
+            logPi[i] = (float)Math.log(temp);
+
+            for (int j = 0; j < num_states; j++){
+                logTransition[i * num_states + j] = (float)Math.log(model.transition[i][j]);
+            }
+            for (int k = 0; k < num_symbols; k++){
+                logOutput[k * num_states + i] = (float)Math.log(model.output[i][k]);
+            }
+        }
+    }
+    /**
+     * viterbi algorithm used to get the probability of the best state sequence, the sequence itself is not kept<br>
+     * only reads the model parameters, so several threads may score against the same model<br>
+     * calls: none<br>
+     * called by: volume
+     * @param testSeq test sequence
+     * @return probability
+     */
+    public double viterbi(int testSeq[]){
+        float phi[] = new float[num_states];
+        float next[] = new float[num_states];
+
+        int symbol = testSeq[0] * num_states;
+        for (int i = 0; i < num_states; i++){
+            phi[i] = logPi[i] + logOutput[symbol + i];
+        }
+
+        for (int t = 1; t < testSeq.length; t++){
+            symbol = testSeq[t] * num_states;
+            for (int j = 0; j < num_states; j++){
+                float max = phi[0] + logTransition[j];
+
+                for (int i = 1; i < num_states; i++){
+                    float temp = phi[i] + logTransition[i * num_states + j];
+                    if (temp > max){
+                        max = temp;
+                    }
+                }
+
+                next[j] = max + logOutput[symbol + j];
+            }
+
+            float swap[] = phi;
+            phi = next;
+            next = swap;
+        }
+
+        float max = phi[0];
+        for (int i = 1; i < num_states; i++){
+            if (phi[i] > max){
+                max = phi[i];
+            }
+        }
+
+        return max;
+    }
+}
\ No newline at end of file
@@ -121,26 +121,48 @@ public class markov{
      * Scale Coefficient
      */
     protected double scaleFactor[];
-    /**
-     * variable for viterbi algorithm
-     */
-    private int psi[][];
     /**
      * best state sequence
+     * @deprecated viterbi does not set it any more, because a shared field cannot be used by several threads,
+     * use viterbiPath
      */
+    @Deprecated
     public int q[];
     /**
-     * viterbi algorithm used to get best state sequence and probability<br>
+     * viterbi algorithm used to get the probability of the best state sequence<br>
+     * only reads the model parameters, so several threads may score against the same model<br>
      * calls: none<br>
      * called by: volume
      * @param testSeq test sequence
      * @return probability
      */
     public double viterbi(int testSeq[]){
-        setObSeq(testSeq);
-        double phi[][] = new double[len_obSeq][num_states];
-        psi = new int[len_obSeq][num_states];
-        q = new int[len_obSeq];
+        return viterbi(testSeq, null);
+    }
+    /**
+     * viterbi algorithm used to get the best state sequence<br>
+     * calls: none<br>
+     * called by: volume
+     * @param testSeq test sequence
+     * @return best state for each observation
+     */
+    public int[] viterbiPath(int testSeq[]){
+        int bestSeq[] = new int[testSeq.length];
+        viterbi(testSeq, bestSeq);
+        return bestSeq;
+    }
+    /**
+     * viterbi algorithm<br>
+     * calls: none<br>
+     * called by: markov
+     * @param testSeq test sequence
+     * @param bestSeq receives the best state sequence, null if it is not needed
+     * @return probability
+     */
+    private double viterbi(int testSeq[], int bestSeq[]){
+        int len = testSeq.length;
+        double phi[][] = new double[len][num_states];
+        int psi[][] = new int[len][num_states];
         
         for (int i = 0; i < num_states; i++){
             double temp = pi[i];
@@ -148,11 +170,11 @@ public class markov{
                 temp = MIN_PROBABILITY;
             }
             
-            phi[0][i] = Math.log(temp) + Math.log(output[i][currentSeq[0]]);
+            phi[0][i] = Math.log(temp) + Math.log(output[i][testSeq[0]]);
             psi[0][i] = 0;
         }
         
-        for (int t = 1; t < len_obSeq; t++){
+        for (int t = 1; t < len; t++){
             for (int j = 0; j < num_states; j++){
                 double max = phi[t - 1][0] + Math.log(transition[0][j]);
                 double temp = 0;
@@ -168,16 +190,16 @@ public class markov{
                     
                 }
                 
-                phi[t][j] = max + Math.log( output[j][currentSeq[t]] );
+                phi[t][j] = max + Math.log( output[j][testSeq[t]] );
                 psi[t][j] = index;
             }
         }
         
-        double max = phi[len_obSeq - 1][0];
+        double max = phi[len - 1][0];
         double temp = 0;
         int index = 0;
         for (int i = 1; i < num_states; i++){
-            temp = phi[len_obSeq - 1][i];
+            temp = phi[len - 1][i];
             
             if (temp > max){
                 max = temp;
@@ -185,10 +207,12 @@ public class markov{
             }
         }
         
-        q[len_obSeq - 1] = index;
-        
-        for (int t = len_obSeq - 2; t >= 0; t--){
-            q[t] = psi[t + 1][q[t + 1]];
+        if (bestSeq != null){
+            bestSeq[len - 1] = index;
+            
+            for (int t = len - 2; t >= 0; t--){
+                bestSeq[t] = psi[t + 1][bestSeq[t + 1]];
+            }
         }
         
         return max;
@@ -49,9 +49,9 @@ import java.util.*;
 import org.oc.ocvolume.audio.*;
 import org.oc.ocvolume.wav.*;
 import org.oc.ocvolume.dsp.*;
-import org.oc.ocvolume.dsp.featureExtraction;
 import org.oc.ocvolume.vq.*;
 import org.oc.ocvolume.hmm.markov;
+import org.oc.ocvolume.hmm.floatMarkov;
 //import org.oc.ocvolume.database.*;
 
 /**
@@ -77,10 +77,34 @@ public class ocvolume{
      * codebooks for the words in the dictionary
      */
     private codebook codebooks[];
+    /**
+     * boolean indicating whether to recognize with single precision features and models
+     */
+    private boolean useFloat = false;
+    /**
+     * single precision hidden markov models, used instead of hmmModels when useFloat is set
+     */
+    private floatMarkov floatModels[];
+    /**
+     * single precision codebooks, used instead of codebooks when useFloat is set
+     */
+    private floatCodebook floatCodebooks[];
     /**
      * number of words in the dictionary
      */
     private int num_words = 0;
+    /**
+     * front-end configuration the models were trained with
+     */
+    private frontEndConfig config = frontEndConfig.DEFAULT;
+    /**
+     * feature extractor owned by each thread calling getWord
+     */
+    private ThreadLocal extractors = new ThreadLocal(){
+        protected Object initialValue(){
+            return config.newExtractor();
+        }
+    };
     
     /**
      * constructor to create a speech recognition engine using VQ for recognition
@@ -88,6 +112,33 @@ public class ocvolume{
      * @param folder path of the folder where *.vq are located
      */
     public ocvolume(String dict, String folder){
+        this(dict, folder, frontEndConfig.DEFAULT);
+    }
+    
+    /**
+     * constructor to create a speech recognition engine using VQ for recognition with a front-end configuration<br>
+     * engines with different configurations (e.g. 8 kHz and 16 kHz) share the cached front-end tables
+     * @param dict file path of the dictionary file that contains all the words that the engine can recognize
+     * @param folder path of the folder where *.vq are located
+     * @param config front-end configuration the codebooks were trained with
+     */
+    public ocvolume(String dict, String folder, frontEndConfig config){
+        this(dict, folder, config, false);
+    }
+    
+    /**
+     * constructor to create a speech recognition engine using VQ for recognition with a front-end configuration
+     * and a choice of precision<br>
+     * in single precision the codebooks are rounded to float when loaded and only the float copies are kept
+     * @param dict file path of the dictionary file that contains all the words that the engine can recognize
+     * @param folder path of the folder where *.vq are located
+     * @param config front-end configuration the codebooks were trained with
+     * @param floatPrecision true to recognize with single precision features and codebooks
+     */
+    public ocvolume(String dict, String folder, frontEndConfig config, boolean floatPrecision){
+        this.config = config;
+        useFloat = floatPrecision;
+        
         // get all words in the dictionary
         getDict(dict);
         
@@ -96,6 +147,11 @@ public class ocvolume{
         for (int i = 0; i < num_words; i++){
             codebooks[i] = new codebook(folder + words[i] + ".vq");
         }
+        
+        if (useFloat){
+            floatCodebooks = toFloat(codebooks);
+            codebooks = null;
+        }
     }
     
     /**
@@ -105,7 +161,34 @@ public class ocvolume{
      * @param pathForCodebook file path of the codebook file that should be used for HMM
      */
     public ocvolume(String dict, String pathForHMM, String pathForCodebook){
+        this(dict, pathForHMM, pathForCodebook, frontEndConfig.DEFAULT);
+    }
+    
+    /**
+     * constructor to create a speech recognition engine using HMM for recognition with a front-end configuration
+     * @param dict file path of the dictionary file that contains all the words that the engine can recognize
+     * @param pathForHMM path of the folder where *.hmm are located
+     * @param pathForCodebook file path of the codebook file that should be used for HMM
+     * @param config front-end configuration the models were trained with
+     */
+    public ocvolume(String dict, String pathForHMM, String pathForCodebook, frontEndConfig config){
+        this(dict, pathForHMM, pathForCodebook, config, false);
+    }
+    
+    /**
+     * constructor to create a speech recognition engine using HMM for recognition with a front-end configuration
+     * and a choice of precision<br>
+     * in single precision the codebook and models are rounded to float when loaded and only the float copies are kept
+     * @param dict file path of the dictionary file that contains all the words that the engine can recognize
+     * @param pathForHMM path of the folder where *.hmm are located
+     * @param pathForCodebook file path of the codebook file that should be used for HMM
+     * @param config front-end configuration the models were trained with
+     * @param floatPrecision true to recognize with single precision features, codebook and models
+     */
+    public ocvolume(String dict, String pathForHMM, String pathForCodebook, frontEndConfig config, boolean floatPrecision){
+        this.config = config;
         useHMM = true;
+        useFloat = floatPrecision;
         
         // get all words in the dictionary
         getDict(dict);
@@ -119,22 +202,62 @@ public class ocvolume{
         for (int i = 0; i < num_words; i++){
             hmmModels[i] = new markov(pathForHMM + words[i] + ".hmm");
         }
+        
+        if (useFloat){
+            floatCodebooks = toFloat(codebooks);
+            codebooks = null;
+            
+            floatModels = new floatMarkov[num_words];
+            for (int i = 0; i < num_words; i++){
+                floatModels[i] = new floatMarkov(hmmModels[i]);
+            }
+            hmmModels = null;
+        }
     }
     
+    /**
+     * recognizes a word from a speech signal<br>
+     * may be called from several threads at once, each thread uses its own feature extractor
+     * @param signal speech signal (16 bit integer data)
+     * @return the recognized word
+     */
     public String getWord(short signal[]){
+        return getWord(signal, null);
+    }
+    
+    /**
+     * recognizes a word from a speech signal, the end-point detection uses the given background noise level
+     * (see micInput.getNoiseFloor)<br>
+     * may be called from several threads at once, each thread uses its own feature extractor
+     * @param signal speech signal (16 bit integer data)
+     * @param floor noise level, or null to measure it from the start and end of the signal
+     * @return the recognized word
+     */
+    public String getWord(short signal[], noiseFloor floor){
+        return getWord(signal, signal.length, floor);
+    }
+    
+    /**
+     * recognizes a word from the start of a buffer, so the same buffer can be used for every word (see
+     * micInput.currentWord and objSound.copyTo)<br>
+     * may be called from several threads at once, each thread uses its own feature extractor
+     * @param signal buffer holding the speech signal (16 bit integer data)
+     * @param length number of samples of the signal
+     * @param floor noise level, or null to measure it from the start and end of the signal
+     * @return the recognized word
+     */
+    public String getWord(short signal[], int length, noiseFloor floor){
         // End-Point Detection
-        short signalAfterEndPoint[] = endPt.absCut(signal);
+        short signalAfterEndPoint[] = endPt.absCut(signal, length, floor);
         
-        double mfcc[][] = featureExtraction.process(signalAfterEndPoint);
+        featureExtractor fe = (featureExtractor)extractors.get();
+        featureMatrix mfcc = fe.extractMatrix(signalAfterEndPoint);
         
-        point pts[] = new point[mfcc.length];
-        for (int index = 0; index < mfcc.length; index++){
-            double temp[] = new double[mfcc[index].length - 1];
-            
-            for (int i = 1; i < mfcc[index].length; i++){
-                temp[i - 1] = mfcc[index][i];
-            }
-            pts[index] = new point(temp);
+        // c0 is not used for recognition
+        featureMatrix pts = mfcc.columns(1, mfcc.getDimension() - 1);
+        
+        if (useFloat){
+            return getWord(new floatFeatureMatrix(pts));
         }
         
         if (useHMM){
@@ -176,6 +299,69 @@ public class ocvolume{
         }
     }
     
+    /**
+     * recognizes a word from single precision features
+     * @param pts features without c0
+     * @return the recognized word
+     */
+    private String getWord(floatFeatureMatrix pts){
+        int wordIndex = -1;
+        
+        if (useHMM){
+            int quantized[] = floatCodebooks[0].quantize(pts);
+            
+            double highest = Double.NEGATIVE_INFINITY;
+            for (int j = 0; j < words.length; j++){
+                double prob = floatModels[j].viterbi(quantized);
+                if (prob > highest){
+                    highest = prob;
+                    wordIndex = j;
+                }
+            }
+        }
+        else{
+            double lowest_dist = Double.MAX_VALUE;
+            for (int index = 0; index < words.length; index++){
+                double dist = floatCodebooks[index].getDistortion(pts);
+                if (dist < lowest_dist){
+                    lowest_dist = dist;
+                    wordIndex = index;
+                }
+            }
+        }
+        
+        return words[wordIndex];
+    }
+    
+    /**
+     * returns whether this engine recognizes in single precision
+     * @return true for single precision
+     */
+    public boolean isFloatPrecision(){
+        return useFloat;
+    }
+    
+    /**
+     * rounds codebooks to single precision
+     * @param cbks double precision codebooks
+     * @return single precision codebooks
+     */
+    private static floatCodebook[] toFloat(codebook cbks[]){
+        floatCodebook result[] = new floatCodebook[cbks.length];
+        for (int i = 0; i < cbks.length; i++){
+            result[i] = new floatCodebook(cbks[i]);
+        }
+        return result;
+    }
+    
+    /**
+     * returns the front-end configuration of this engine
+     * @return front-end configuration
+     */
+    public frontEndConfig getConfig(){
+        return config;
+    }
+    
     /**
      * loads words from dictionary
      * @param file path of the dictionary file
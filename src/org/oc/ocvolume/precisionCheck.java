@@ -0,0 +1,202 @@
+/*
+OC Volume - Java Speech Recognition Engine
+Copyright (c) 2002-2004, OrangeCow organization
+All rights reserved.
+
+Redistribution and use in source and binary forms,
+with or without modification, are permitted provided
+that the following conditions are met:
+
+* Redistributions of source code must retain the
+  above copyright notice, this list of conditions
+  and the following disclaimer.
+* Redistributions in binary form must reproduce the
+  above copyright notice, this list of conditions
+  and the following disclaimer in the documentation
+  and/or other materials provided with the
+  distribution.
+* Neither the name of the OrangeCow organization
+  nor the names of its contributors may be used to
+  endorse or promote products derived from this
+  software without specific prior written
+  permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS
+AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF
+THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+POSSIBILITY OF SUCH DAMAGE.
+
+Contact information:
+Please visit http://ocvolume.sourceforge.net.
+*/
+
+package org.oc.ocvolume;
+
+import java.io.*;
+import java.util.Vector;
+import org.oc.ocvolume.dsp.*;
+import org.oc.ocvolume.hmm.markov;
+import org.oc.ocvolume.hmm.floatMarkov;
+import org.oc.ocvolume.vq.codebook;
+import org.oc.ocvolume.vq.floatCodebook;
+import org.oc.ocvolume.wav.waveIO;
+
+/**
+ * accuracy regression check of single precision recognition against double precision<br>
+ * scores every recording with the double and the single precision models, prints the largest relative score
+ * difference and the recordings recognized differently, and exits with status 1 if any word differs or a score
+ * differs by more than the tolerance<br>
+ * usage:<br>
+ * java org.oc.ocvolume.precisionCheck vq dict folder file.wav ...<br>
+ * java org.oc.ocvolume.precisionCheck hmm dict hmmFolder codebookFile file.wav ...
+ * @author Danny Su
+ */
+public class precisionCheck{
+    /**
+     * largest relative difference of a score allowed
+     */
+    final static double TOLERANCE = 1e-3;
+    
+    /**
+     * runs the check
+     * @param args mode, model paths and wave files
+     */
+    public static void main(String args[]){
+        if (args.length < 4 || !(args[0].equals("vq") || args[0].equals("hmm")) || (args[0].equals("hmm") && args.length < 5)){
+            System.out.println("usage: precisionCheck vq dict folder file.wav ...");
+            System.out.println("       precisionCheck hmm dict hmmFolder codebookFile file.wav ...");
+            System.exit(2);
+        }
+        
+        boolean useHMM = args[0].equals("hmm");
+        String words[] = readDict(args[1]);
+        int first = useHMM ? 4 : 3;
+        
+        // double precision models and their single precision copies
+        codebook codebooks[];
+        markov models[] = null;
+        if (useHMM){
+            codebooks = new codebook[]{ new codebook(args[3]) };
+            models = new markov[words.length];
+            for (int i = 0; i < words.length; i++){
+                models[i] = new markov(args[2] + words[i] + ".hmm");
+            }
+        }
+        else{
+            codebooks = new codebook[words.length];
+            for (int i = 0; i < words.length; i++){
+                codebooks[i] = new codebook(args[2] + words[i] + ".vq");
+            }
+        }
+        
+        floatCodebook floatCodebooks[] = new floatCodebook[codebooks.length];
+        for (int i = 0; i < codebooks.length; i++){
+            floatCodebooks[i] = new floatCodebook(codebooks[i]);
+        }
+        floatMarkov floatModels[] = null;
+        if (useHMM){
+            floatModels = new floatMarkov[models.length];
+            for (int i = 0; i < models.length; i++){
+                floatModels[i] = new floatMarkov(models[i]);
+            }
+        }
+        
+        featureExtraction fe = new featureExtraction();
+        double maxError = 0;
+        int mismatches = 0;
+        
+        for (int f = first; f < args.length; f++){
+            short signal[] = endPt.absCut(waveIO.readWave(args[f], (float)fe.getConfig().getSamplingRate()));
+            featureMatrix mfcc = fe.extractMatrix(signal);
+            featureMatrix pts = mfcc.columns(1, mfcc.getDimension() - 1);
+            floatFeatureMatrix floatPts = new floatFeatureMatrix(pts);
+            
+            double scores[] = new double[words.length];
+            double floatScores[] = new double[words.length];
+            if (useHMM){
+                int quantized[] = codebooks[0].quantize(pts);
+                int floatQuantized[] = floatCodebooks[0].quantize(floatPts);
+                for (int j = 0; j < words.length; j++){
+                    scores[j] = models[j].viterbi(quantized);
+                    floatScores[j] = floatModels[j].viterbi(floatQuantized);
+                }
+            }
+            else{
+                for (int j = 0; j < words.length; j++){
+                    // negated so that the best word has the highest score in both modes
+                    scores[j] = -codebooks[j].getDistortion(pts);
+                    floatScores[j] = -floatCodebooks[j].getDistortion(floatPts);
+                }
+            }
+            
+            for (int j = 0; j < words.length; j++){
+                double error = Math.abs(floatScores[j] - scores[j]) / Math.max(Math.abs(scores[j]), Double.MIN_VALUE);
+                if (error > maxError && !Double.isInfinite(scores[j])){
+                    maxError = error;
+                }
+            }
+            
+            int best = best(scores);
+            int floatBest = best(floatScores);
+            if (best != floatBest){
+                mismatches++;
+                System.out.println(args[f] + ": double " + words[best] + ", float " + words[floatBest]);
+            }
+        }
+        
+        System.out.println((args.length - first) + " recordings, " + mismatches + " recognized differently, largest relative score difference " + maxError);
+        System.exit((mismatches == 0 && maxError <= TOLERANCE) ? 0 : 1);
+    }
+    
+    /**
+     * returns the index of the highest score
+     * @param scores scores of all words
+     * @return index of the best word
+     */
+    private static int best(double scores[]){
+        int index = 0;
+        for (int j = 1; j < scores.length; j++){
+            if (scores[j] > scores[index]){
+                index = j;
+            }
+        }
+        return index;
+    }
+    
+    /**
+     * loads words from dictionary
+     * @param dict path of the dictionary file
+     * @return words in the dictionary
+     */
+    private static String[] readDict(String dict){
+        Vector v = new Vector(1, 1);
+        try{
+            BufferedReader br = new BufferedReader(new FileReader(dict));
+            String tmp;
+            while ( (tmp = br.readLine()) != null ){
+                v.add(tmp);
+            }
+            br.close();
+        }
+        catch(IOException e){
+            System.out.println("err: cannot read dictionary\n" + e.toString());
+            System.exit(2);
+        }
+        
+        String words[] = new String[v.size()];
+        v.copyInto(words);
+        return words;
+    }
+}
\ No newline at end of file
@@ -52,7 +52,6 @@ import java.awt.event.*;
 import org.oc.ocvolume.audio.*;
 import org.oc.ocvolume.wav.*;
 import org.oc.ocvolume.dsp.*;
-import org.oc.ocvolume.dsp.featureExtraction;
 import org.oc.ocvolume.vq.*;
 import org.oc.ocvolume.hmm.markov;
 
@@ -311,18 +310,21 @@ public class train extends JFrame implements Runnable{
         while(true){
             mic.removeOldWord();
             
-            while(!mic.byteArrayComplete()){
-                try{
-                    checking.sleep(200);
-                }
-                catch(Exception e){
-                    e.printStackTrace();
+            try{
+                //the recording ended and all its words were taken
+                if (!mic.waitForWord()){
+                    return;
                 }
             }
+            catch(InterruptedException e){
+                return;
+            }
             
-            mic.newWord();
+            //every recording is kept for training, so it is copied once into its own array
+            objSound recording = mic.currentWord();
             num_recorded++;
-            samples[num_recorded - 1] = mic.returnShortArray();
+            samples[num_recorded - 1] = new short[recording.getSoundSize()];
+            recording.copyTo(samples[num_recorded - 1], 0);
             
             if ( num_recorded == num_samples ){
                 addText("start training");
@@ -330,9 +332,17 @@ public class train extends JFrame implements Runnable{
                 final int DIMENSION = 12;
                 int ctr = 0;
                 Vector v = new Vector(1, 1);
+                featureExtractor fe = frontEndConfig.DEFAULT.newExtractor();
+                featureCache cache = featureCache.getDefault();
                 for (int num = 0; num < num_samples; num++){
-                    short input[] = endPt.absCut(samples[num]);
-                    double mfcc[][] = featureExtraction.process(input);
+                    double mfcc[][];
+                    if (cache != null){
+                        mfcc = cache.getFeatures(samples[num], true, fe).toArray();
+                    }
+                    else{
+                        short input[] = endPt.absCut(samples[num]);
+                        mfcc = fe.extract(input);
+                    }
                     
                     for (int j = 0; j < mfcc.length; j++){
                         String temp = "";
@@ -110,10 +110,10 @@ public class centroid extends point{
         point tmpPoint = (point)pts.get(0);
         int i = -1;
         
-        Enumeration enum = pts.elements();
+        Enumeration e = pts.elements();
         boolean found = false;
-        while( enum.hasMoreElements() && !found ){
-            tmpPoint = (point)enum.nextElement();
+        while( e.hasMoreElements() && !found ){
+            tmpPoint = (point)e.nextElement();
             i++;
             
             // find the identical point in pts vector
@@ -157,10 +157,10 @@ public class centroid extends point{
     public void update(){
         double sum_coordinates[] = new double[dimension];
         point tmpPoint;
-        Enumeration enum = pts.elements();
+        Enumeration e = pts.elements();
         
-        while( enum.hasMoreElements() ){
-            tmpPoint = (point)enum.nextElement();
+        while( e.hasMoreElements() ){
+            tmpPoint = (point)e.nextElement();
             
             // calculate the sum of all coordinates
             for (int k = 0; k < dimension; k++){
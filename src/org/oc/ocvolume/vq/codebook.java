@@ -48,6 +48,7 @@ import java.io.*;
 import java.sql.*;
 import java.util.StringTokenizer;
 import org.oc.ocvolume.database.*;
+import org.oc.ocvolume.dsp.featureMatrix;
 
 /**
  * last updated on June 15, 2002<br>
@@ -357,6 +358,42 @@ public class codebook{
         
         return output;
     }
+    /**
+     * quantize every frame of a feature matrix<br>
+     * calls: none<br>
+     * called by: volume
+     * @param features frames to be quantized, the dimension must match the codebook
+     * @return quantized index array
+     */
+    public int[] quantize(featureMatrix features){
+        double data[] = features.getData();
+        int output[] = new int[features.getNumFrames()];
+        
+        for (int i = 0; i < output.length; i++){
+            output[i] = closestCentroidToPoint(data, features.getRowStart(i));
+        }
+        
+        return output;
+    }
+    /**
+     * calculates the distortion of every frame of a feature matrix<br>
+     * calls: none<br>
+     * called by: volume
+     * @param features frames to calculate the distortion with, the dimension must match the codebook
+     * @return distortion measure
+     */
+    public double getDistortion(featureMatrix features){
+        double data[] = features.getData();
+        double dist = 0;
+        
+        for (int i = 0; i < features.getNumFrames(); i++){
+            int offset = features.getRowStart(i);
+            int index = closestCentroidToPoint(data, offset);
+            dist += getDistance(data, offset, centroids[index]);
+        }
+        
+        return dist;
+    }
     /**
      * calculates the distortion<br>
      * calls: none<br>
@@ -398,6 +435,29 @@ public class codebook{
         
         return lowest_index;
     }
+    /**
+     * finds the closest centroid to a vector stored in an array<br>
+     * calls: none<br>
+     * called by: codebook
+     * @param data array holding the vector
+     * @param offset index of the first coordinate in data
+     * @return index number of the closest centroid
+     */
+    private int closestCentroidToPoint(double data[], int offset){
+        double tmp_dist = 0;
+        double lowest_dist = 0;
+        int lowest_index = 0;
+        
+        for (int i = 0; i < centroids.length; i++){
+            tmp_dist = getDistance(data, offset, centroids[i]);
+            if (tmp_dist < lowest_dist || i == 0){
+                lowest_dist = tmp_dist;
+                lowest_index = i;
+            }
+        }
+        
+        return lowest_index;
+    }
     /**
      * finds the closest centroid to a specific centroid<br>
      * calls: none<br>
@@ -491,6 +551,28 @@ public class codebook{
         
         distance = Math.sqrt(distance);
         
+        return distance;
+    }
+    /**
+     * calculates the distance of a vector stored in an array to a centroid<br>
+     * calls: none<br>
+     * called by: codebook
+     * @param data array holding the vector
+     * @param offset index of the first coordinate in data
+     * @param tC centroid
+     */
+    private double getDistance(double data[], int offset, centroid tC){
+        double co[] = tC.coordinates;
+        double distance = 0;
+        double temp = 0;
+        
+        for (int i = 0 ; i < dimension; i++) {
+            temp = data[offset + i] - co[i];
+            distance += temp * temp;
+        }
+        
+        distance = Math.sqrt(distance);
+        
         return distance;
     }
 }
\ No newline at end of file
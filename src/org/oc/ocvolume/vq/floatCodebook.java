@@ -0,0 +1,186 @@
+/*
+OC Volume - Java Speech Recognition Engine
+Copyright (c) 2002-2004, OrangeCow organization
+All rights reserved.
+
+Redistribution and use in source and binary forms,
+with or without modification, are permitted provided
+that the following conditions are met:
+
+* Redistributions of source code must retain the
+  above copyright notice, this list of conditions
+  and the following disclaimer.
+* Redistributions in binary form must reproduce the
+  above copyright notice, this list of conditions
+  and the following disclaimer in the documentation
+  and/or other materials provided with the
+  distribution.
+* Neither the name of the OrangeCow organization
+  nor the names of its contributors may be used to
+  endorse or promote products derived from this
+  software without specific prior written
+  permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS
+AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF
+THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+POSSIBILITY OF SUCH DAMAGE.
+
+Contact information:
+Please visit http://ocvolume.sourceforge.net.
+*/
+
+package org.oc.ocvolume.vq;
+
+import org.oc.ocvolume.dsp.floatFeatureMatrix;
+
+/**
+ * <b>description:</b> single precision copy of a trained codebook used for recognition only. The centroids are
+ * packed into one float array, so finding the closest centroid reads half the memory of the double precision
+ * codebook.<br>
+ * <b>calls:</b> codebook<br>
+ * <b>called by:</b> volume<br>
+ * <b>input:</b> single precision feature vectors<br>
+ * <b>output:</b> set of indices, distortion measure
+ * @author Danny Su
+ */
+public class floatCodebook{
+    /**
+     * number of centroids
+     */
+    protected int codebook_size;
+    /**
+     * dimension
+     */
+    protected int dimension;
+    /**
+     * coordinates of all centroids, centroid c starts at c * dimension
+     */
+    protected float centroids[];
+    /**
+     * constructor to round a trained or loaded codebook to single precision<br>
+     * calls: none<br>
+     * called by: volume
+     * @param cbk double precision codebook
+     */
+    public floatCodebook(codebook cbk){
+        codebook_size = cbk.centroids.length;
+        dimension = cbk.dimension;
+        centroids = new float[codebook_size * dimension];
+
+        for (int c = 0; c < codebook_size; c++){
+            double co[] = cbk.centroids[c].coordinates;
+            for (int k = 0; k < dimension; k++){
+                centroids[c * dimension + k] = (float)co[k];
+            }
+        }
+    }
+    /**
+     * quantize every frame of a feature matrix<br>
+     * calls: none<br>
+     * called by: volume
+     * @param features frames to be quantized, the dimension must match the codebook
+     * @return quantized index array
+     */
+    public int[] quantize(floatFeatureMatrix features){
+        float data[] = features.getData();
+        int output[] = new int[features.getNumFrames()];
+
+        for (int i = 0; i < output.length; i++){
+            output[i] = closestCentroid(data, features.getRowStart(i));
+        }
+
+        return output;
+    }
+    /**
+     * calculates the distortion of every frame of a feature matrix<br>
+     * calls: none<br>
+     * called by: volume
+     * @param features frames to calculate the distortion with, the dimension must match the codebook
+     * @return distortion measure
+     */
+    public double getDistortion(floatFeatureMatrix features){
+        float data[] = features.getData();
+        double dist = 0;
+
+        for (int i = 0; i < features.getNumFrames(); i++){
+            int offset = features.getRowStart(i);
+            int index = closestCentroid(data, offset);
+            dist += Math.sqrt(getSquaredDistance(data, offset, index));
+        }
+
+        return dist;
+    }
+    /**
+     * get the number of centroids<br>
+     * calls: none<br>
+     * called by: volume
+     * @return codebook size
+     */
+    public int getSize(){
+        return codebook_size;
+    }
+    /**
+     * get the dimension of the centroids<br>
+     * calls: none<br>
+     * called by: volume
+     * @return dimension
+     */
+    public int getDimension(){
+        return dimension;
+    }
+    /**
+     * finds the closest centroid to a vector stored in an array<br>
+     * calls: none<br>
+     * called by: floatCodebook
+     * @param data array holding the vector
+     * @param offset index of the first coordinate in data
+     * @return index number of the closest centroid
+     */
+    private int closestCentroid(float data[], int offset){
+        // the square root is not needed to find the smallest distance
+        float lowest_dist = getSquaredDistance(data, offset, 0);
+        int lowest_index = 0;
+
+        for (int i = 1; i < codebook_size; i++){
+            float tmp_dist = getSquaredDistance(data, offset, i);
+            if (tmp_dist < lowest_dist){
+                lowest_dist = tmp_dist;
+                lowest_index = i;
+            }
+        }
+
+        return lowest_index;
+    }
+    /**
+     * calculates the squared distance of a vector stored in an array to a centroid<br>
+     * calls: none<br>
+     * called by: floatCodebook
+     * @param data array holding the vector
+     * @param offset index of the first coordinate in data
+     * @param c index of the centroid
+     */
+    private float getSquaredDistance(float data[], int offset, int c){
+        int base = c * dimension;
+        float distance = 0;
+
+        for (int i = 0; i < dimension; i++){
+            float temp = data[offset + i] - centroids[base + i];
+            distance += temp * temp;
+        }
+
+        return distance;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,143 @@
+/*
+OC Volume - Java Speech Recognition Engine
+Copyright (c) 2002-2004, OrangeCow organization
+All rights reserved.
+
+Redistribution and use in source and binary forms,
+with or without modification, are permitted provided
+that the following conditions are met:
+
+* Redistributions of source code must retain the
+  above copyright notice, this list of conditions
+  and the following disclaimer.
+* Redistributions in binary form must reproduce the
+  above copyright notice, this list of conditions
+  and the following disclaimer in the documentation
+  and/or other materials provided with the
+  distribution.
+* Neither the name of the OrangeCow organization
+  nor the names of its contributors may be used to
+  endorse or promote products derived from this
+  software without specific prior written
+  permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS
+AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF
+THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+POSSIBILITY OF SUCH DAMAGE.
+
+Contact information:
+Please visit http://ocvolume.sourceforge.net.
+*/
+
+package org.oc.ocvolume.wav;
+
+/**
+ * <b>description:</b> one utterance found in a recording by waveSegmenter. The samples hold the utterance and some
+ * of the recording around it, which endPt.absCut (e.g. in ocvolume.getWord) uses to measure the noise<br>
+ * <b>calls:</b> none<br>
+ * <b>called by:</b> waveSegmenter, volume<br>
+ * <b>input:</b> position and samples of the utterance<br>
+ * <b>output:</b> none
+ * @author Keith Fung
+ */
+public class segment{
+    /**
+     * position of the first sample in the recording
+     */
+    private final long offset;
+    /**
+     * samples of the utterance
+     */
+    private final short samples[];
+    /**
+     * index in samples of the first sample of the speech
+     */
+    private final int speechStart;
+    /**
+     * number of samples of the speech
+     */
+    private final int speechLength;
+    /**
+     * constructor of an utterance without context<br>
+     * calls: none<br>
+     * called by: volume
+     * @param offset position of the first sample in the recording
+     * @param samples samples of the utterance
+     */
+    public segment(long offset, short samples[]){
+        this(offset, samples, 0, samples.length);
+    }
+    /**
+     * constructor<br>
+     * calls: none<br>
+     * called by: waveSegmenter
+     * @param offset position of the first sample in the recording
+     * @param samples samples of the utterance and the context around it
+     * @param speechStart index in samples of the first sample of the speech
+     * @param speechLength number of samples of the speech
+     */
+    public segment(long offset, short samples[], int speechStart, int speechLength){
+        this.offset = offset;
+        this.samples = samples;
+        this.speechStart = speechStart;
+        this.speechLength = speechLength;
+    }
+    /**
+     * returns the position of the samples<br>
+     * calls: none<br>
+     * called by: volume
+     * @return number of samples in the recording before the first sample, context included
+     */
+    public long getOffset(){
+        return offset;
+    }
+    /**
+     * returns the length of the samples<br>
+     * calls: none<br>
+     * called by: volume
+     * @return number of samples, context included
+     */
+    public int getLength(){
+        return samples.length;
+    }
+    /**
+     * returns the position of the speech found by the endpoint detector<br>
+     * calls: none<br>
+     * called by: volume
+     * @return number of samples in the recording before the speech
+     */
+    public long getSpeechOffset(){
+        return offset + speechStart;
+    }
+    /**
+     * returns the length of the speech found by the endpoint detector<br>
+     * calls: none<br>
+     * called by: volume
+     * @return number of samples
+     */
+    public int getSpeechLength(){
+        return speechLength;
+    }
+    /**
+     * returns the samples of the utterance and its context, ready for ocvolume.getWord<br>
+     * calls: none<br>
+     * called by: volume
+     * @return speech signal
+     */
+    public short[] getSamples(){
+        return samples;
+    }
+}
\ No newline at end of file
@@ -50,7 +50,7 @@ import java.io.*;
 /**
  * last modified: June 15, 2002<br>
  * <b>description:</b> input and output to a wave file<br>
- * <b>calls:</b> none<br>
+ * <b>calls:</b> waveReader<br>
  * <b>called:</b> tarin<br>
  * <b>input:</b> speech signal, path<br>
  * <b>output:</b> none
@@ -102,6 +102,20 @@ public class waveIO{
      * @param path the save location
      */
     public static void writeWave(short sample[], String path){
+        writeWave(sample, path, SAMPLE_RATE);
+    }
+
+    /**
+     * write to wave file with the given sample rate<br>
+     * calls: none<br>
+     * called by: train
+     * @param sample the data in 16bits integer (short) array
+     * @param path the save location
+     * @param sampleRate samples per second
+     */
+    public static void writeWave(short sample[], String path, float sampleRate){
+        AudioFormat format = new AudioFormat(SAMPLE_ENCODING, sampleRate, SAMPLE_BITS, SAMPLE_CHANNELS, SAMPLE_FRAME_SIZE, sampleRate, SAMPLE_BIG_ENDIAN);
+
         //inputting data to a wav file
 
         byte sampleByte[] = new byte[sample.length * 2];
@@ -114,7 +128,7 @@ public class waveIO{
 
         try {
             ByteArrayInputStream sampleByteArrayInputStream = new ByteArrayInputStream(sampleByte);
-            AudioInputStream sampleAudioInputStream = new AudioInputStream (sampleByteArrayInputStream, FORMAT, sampleByte.length / SAMPLE_FRAME_SIZE);
+            AudioInputStream sampleAudioInputStream = new AudioInputStream (sampleByteArrayInputStream, format, sampleByte.length / SAMPLE_FRAME_SIZE);
             if (AudioSystem.write(sampleAudioInputStream,AudioFileFormat.Type.WAVE, new File(path + ".wav")) == -1){
                 System.out.println("Unable to write to file");
             }
@@ -131,6 +145,23 @@ public class waveIO{
 
 ///////////////////////////////////////////////////////////////
 
+    /**
+     * reads the sample rate of a wave file<br>
+     * calls: none<br>
+     * called by: volume
+     * @param path of the input wave file
+     * @return samples per second, or -1 if the file cannot be read
+     */
+    public static float getSampleRate(String path){
+        try {
+            return AudioSystem.getAudioFileFormat(new File(path)).getFormat().getSampleRate();
+        }
+        catch (Exception e){
+            e.printStackTrace();
+        }
+        return -1;
+    }
+
     /**
      * loading wave file<br>
      * calls: none<br>
@@ -200,4 +231,53 @@ public class waveIO{
         waveShort = new short[1];
         return waveShort;
     }
+
+    /**
+     * loading wave file at the given sample rate, the file is converted to 16 bits mono and resampled while it
+     * is read, so only the converted signal is held in memory<br>
+     * calls: waveReader<br>
+     * called by: volume, batchExtraction
+     * @param path of the input wave file
+     * @param targetRate samples per second of the returned signal
+     * @return a short array of anysize containing the amplitudes in the wave file
+     */
+    public static short[] readWave(String path, float targetRate){
+        try {
+            waveReader reader = new waveReader(path, targetRate);
+            short chunk[] = new short[4096];
+            short waveShort[] = new short[16000];
+            int length = 0;
+            int count;
+
+            while ((count = reader.read(chunk, 0, chunk.length)) != -1){
+                waveShort = append(waveShort, length, chunk, count);
+                length += count;
+            }
+            reader.close();
+
+            short result[] = new short[length];
+            System.arraycopy(waveShort, 0, result, 0, length);
+            return result;
+        }
+        catch (Exception e){
+            e.printStackTrace();
+        }
+        return new short[1];
+    }
+
+    /**
+     * copies samples to the end of a growing array<br>
+     * calls: none<br>
+     * called by: waveIO
+     * @return the array, or a bigger copy of it
+     */
+    private static short[] append(short array[], int length, short samples[], int count){
+        if (length + count > array.length){
+            short grown[] = new short[Math.max(length + count, 2 * array.length)];
+            System.arraycopy(array, 0, grown, 0, length);
+            array = grown;
+        }
+        System.arraycopy(samples, 0, array, length, count);
+        return array;
+    }
 }
\ No newline at end of file
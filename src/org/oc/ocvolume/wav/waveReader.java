@@ -0,0 +1,217 @@
+/*
+OC Volume - Java Speech Recognition Engine
+Copyright (c) 2002-2004, OrangeCow organization
+All rights reserved.
+
+Redistribution and use in source and binary forms,
+with or without modification, are permitted provided
+that the following conditions are met:
+
+* Redistributions of source code must retain the
+  above copyright notice, this list of conditions
+  and the following disclaimer.
+* Redistributions in binary form must reproduce the
+  above copyright notice, this list of conditions
+  and the following disclaimer in the documentation
+  and/or other materials provided with the
+  distribution.
+* Neither the name of the OrangeCow organization
+  nor the names of its contributors may be used to
+  endorse or promote products derived from this
+  software without specific prior written
+  permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS
+AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF
+THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+POSSIBILITY OF SUCH DAMAGE.
+
+Contact information:
+Please visit http://ocvolume.sourceforge.net.
+*/
+
+package org.oc.ocvolume.wav;
+
+import javax.sound.sampled.*;
+import java.io.*;
+import org.oc.ocvolume.dsp.resampler;
+
+/**
+ * <b>description:</b> reads a wave file a chunk at a time. The file is converted to 16 bits mono at the
+ * requested sample rate while it is read, so only one chunk of it is in memory.<br>
+ * <b>calls:</b> resampler<br>
+ * <b>called by:</b> waveIO, waveSegmenter<br>
+ * <b>input:</b> path<br>
+ * <b>output:</b> speech signal
+ * @author Keith Fung
+ */
+public class waveReader{
+    /**
+     * number of sample frames read from the file at a time
+     */
+    private final static int CHUNK_FRAMES = 4096;
+    /**
+     * 16 bits stream at the rate of the file
+     */
+    private AudioInputStream readAudioInputStream;
+    /**
+     * number of channels of the file
+     */
+    private int channels;
+    /**
+     * number of bytes of one sample frame
+     */
+    private int frameBytes;
+    /**
+     * sample rate of the returned signal
+     */
+    private float sampleRate;
+    /**
+     * rate converter, null if the file already has the requested rate
+     */
+    private resampler converter;
+    /**
+     * bytes read from the file
+     */
+    private byte waveByte[];
+    /**
+     * number of bytes of a partial frame at the start of waveByte
+     */
+    private int pending = 0;
+    /**
+     * channels mixed down to mono
+     */
+    private short mono[] = new short[CHUNK_FRAMES];
+    /**
+     * converted samples not returned yet
+     */
+    private short converted[];
+    /**
+     * first sample of converted not returned yet
+     */
+    private int convertedPos = 0;
+    /**
+     * number of samples in converted
+     */
+    private int convertedLength = 0;
+    /**
+     * true once the end of the file has been reached
+     */
+    private boolean endOfFile = false;
+    /**
+     * constructor<br>
+     * calls: resampler<br>
+     * called by: waveIO, waveSegmenter
+     * @param path of the input wave file
+     * @param targetRate samples per second of the returned signal
+     * @throws IOException if the file cannot be read
+     * @throws UnsupportedAudioFileException if the file is not an audio file
+     */
+    public waveReader(String path, float targetRate) throws IOException, UnsupportedAudioFileException{
+        AudioInputStream source = AudioSystem.getAudioInputStream(new File(path));
+        AudioFormat sourceFormat = source.getFormat();
+        channels = sourceFormat.getChannels();
+        float sourceRate = sourceFormat.getSampleRate();
+
+        // 16 bits little-endian at the source rate, channels are mixed in refill
+        AudioFormat pcmFormat = new AudioFormat(waveIO.SAMPLE_ENCODING, sourceRate, waveIO.SAMPLE_BITS, channels, waveIO.SAMPLE_FRAME_SIZE * channels, sourceRate, waveIO.SAMPLE_BIG_ENDIAN);
+        readAudioInputStream = AudioSystem.getAudioInputStream(pcmFormat, source);
+
+        sampleRate = targetRate;
+        converter = (Math.round(sourceRate) != Math.round(targetRate)) ? new resampler(Math.round(sourceRate), Math.round(targetRate)) : null;
+
+        frameBytes = waveIO.SAMPLE_FRAME_SIZE * channels;
+        waveByte = new byte[CHUNK_FRAMES * frameBytes];
+        converted = (converter != null) ? new short[converter.getMaxOutput(CHUNK_FRAMES)] : mono;
+    }
+    /**
+     * reads the next samples<br>
+     * calls: resampler<br>
+     * called by: waveIO, waveSegmenter
+     * @param buffer receives the samples
+     * @param offset position of the first sample in buffer
+     * @param length maximum number of samples
+     * @return number of samples read, or -1 at the end of the file
+     * @throws IOException if the file cannot be read
+     */
+    public int read(short buffer[], int offset, int length) throws IOException{
+        while (convertedPos == convertedLength){
+            if (endOfFile || !refill()){
+                return -1;
+            }
+        }
+        int count = Math.min(length, convertedLength - convertedPos);
+        System.arraycopy(converted, convertedPos, buffer, offset, count);
+        convertedPos += count;
+        return count;
+    }
+    /**
+     * returns the sample rate of the returned signal<br>
+     * calls: none<br>
+     * called by: waveSegmenter
+     * @return samples per second
+     */
+    public float getSampleRate(){
+        return sampleRate;
+    }
+    /**
+     * closes the file<br>
+     * calls: none<br>
+     * called by: waveIO, waveSegmenter
+     * @throws IOException if the file cannot be closed
+     */
+    public void close() throws IOException{
+        readAudioInputStream.close();
+    }
+    /**
+     * reads and converts the next chunk of the file<br>
+     * calls: resampler<br>
+     * called by: read
+     * @return false if there are no more samples
+     */
+    private boolean refill() throws IOException{
+        int numByteRead = readAudioInputStream.read(waveByte, pending, waveByte.length - pending);
+        if (numByteRead == -1){
+            endOfFile = true;
+            if (converter == null){
+                return false;
+            }
+            converted = converter.finish();
+            convertedPos = 0;
+            convertedLength = converted.length;
+            return convertedLength > 0;
+        }
+
+        int available = pending + numByteRead;
+        int frames = available / frameBytes;
+
+        for (int f = 0; f < frames; f++){
+            int sum = 0;
+            for (int ch = 0; ch < channels; ch++){
+                int b = f * frameBytes + ch * waveIO.SAMPLE_FRAME_SIZE;
+                sum += (short)((waveByte[b + 1] << 8) | (waveByte[b] & 0xff));
+            }
+            mono[f] = (short)(sum / channels);
+        }
+
+        // a partial frame is kept for the next read
+        pending = available - frames * frameBytes;
+        System.arraycopy(waveByte, frames * frameBytes, waveByte, 0, pending);
+
+        convertedPos = 0;
+        convertedLength = (converter != null) ? converter.process(mono, 0, frames, converted) : frames;
+        return true;
+    }
+}
\ No newline at end of file
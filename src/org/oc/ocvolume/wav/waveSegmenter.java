@@ -0,0 +1,318 @@
+/*
+OC Volume - Java Speech Recognition Engine
+Copyright (c) 2002-2004, OrangeCow organization
+All rights reserved.
+
+Redistribution and use in source and binary forms,
+with or without modification, are permitted provided
+that the following conditions are met:
+
+* Redistributions of source code must retain the
+  above copyright notice, this list of conditions
+  and the following disclaimer.
+* Redistributions in binary form must reproduce the
+  above copyright notice, this list of conditions
+  and the following disclaimer in the documentation
+  and/or other materials provided with the
+  distribution.
+* Neither the name of the OrangeCow organization
+  nor the names of its contributors may be used to
+  endorse or promote products derived from this
+  software without specific prior written
+  permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS
+AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO
+EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF
+THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+POSSIBILITY OF SUCH DAMAGE.
+
+Contact information:
+Please visit http://ocvolume.sourceforge.net.
+*/
+
+package org.oc.ocvolume.wav;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import org.oc.ocvolume.dsp.streamingEndPt;
+
+/**
+ * <b>description:</b> splits a long recording into utterances. The wave file is read a chunk at a time and the
+ * endpoints are searched while it is read by streamingEndPt, so the utterances are returned one by one as the file
+ * is read. Only the last maxSeconds of the recording are kept, utterances longer than that are cut, so memory
+ * stays the same whatever the length of the file.<br>
+ * Every segment also holds CONTEXT_FRAMES frames of the recording before and after the speech, like micInput keeps
+ * the frames around a word. endPt.absCut measures the noise on the first and last 100ms, so the segments can be
+ * given to ocvolume.getWord without losing speech. A segment is returned once the context after it is read.<br>
+ * The segmenter is an Iterator of segment. A read error ends the iteration and is printed.<br>
+ * <b>calls:</b> waveReader, streamingEndPt<br>
+ * <b>called by:</b> volume<br>
+ * <b>input:</b> path<br>
+ * <b>output:</b> utterances
+ * @author Keith Fung
+ */
+public class waveSegmenter implements Iterator<segment>{
+    /**
+     * default maximum length of an utterance in seconds
+     */
+    public final static double DEFAULT_MAX_SECONDS = 30;
+    /**
+     * number of samples read at a time
+     */
+    private final static int CHUNK_SIZE = 4096;
+    /**
+     * number of 5ms frames of context on each side of the speech, more than the 100ms endPt.absCut takes as noise
+     * at the start and at the end
+     */
+    public final static int CONTEXT_FRAMES = 24;
+    /**
+     * number of samples of context on each side of the speech
+     */
+    private final static int CONTEXT = CONTEXT_FRAMES * streamingEndPt.FRAME_SIZE;
+    /**
+     * the file
+     */
+    private waveReader reader;
+    /**
+     * endpoint detector
+     */
+    private streamingEndPt detector = new streamingEndPt();
+    /**
+     * last samples of the recording, sample n at n % history.length
+     */
+    private short history[];
+    /**
+     * samples read from the file
+     */
+    private short chunk[] = new short[CHUNK_SIZE];
+    /**
+     * samples of the next frame
+     */
+    private short frame[] = new short[streamingEndPt.FRAME_SIZE];
+    /**
+     * number of samples in frame
+     */
+    private int filled = 0;
+    /**
+     * number of samples read from the file
+     */
+    private long position = 0;
+    /**
+     * chunk samples not given to the detector yet
+     */
+    private int chunkPos = 0;
+    /**
+     * number of samples in chunk
+     */
+    private int chunkLength = 0;
+    /**
+     * utterance found but not returned yet
+     */
+    private segment next = null;
+    /**
+     * position of the first sample of the utterance waiting for its context, -1 if there is none
+     */
+    private long pendingStart = -1;
+    /**
+     * position after the last sample of the utterance waiting for its context
+     */
+    private long pendingEnd = -1;
+    /**
+     * true once the whole file went through the detector
+     */
+    private boolean finished = false;
+    /**
+     * constructor with utterances of at most DEFAULT_MAX_SECONDS<br>
+     * calls: waveReader<br>
+     * called by: volume
+     * @param path of the input wave file
+     * @param sampleRate samples per second of the returned utterances
+     * @throws Exception if the file cannot be opened
+     */
+    public waveSegmenter(String path, float sampleRate) throws Exception{
+        this(path, sampleRate, DEFAULT_MAX_SECONDS);
+    }
+    /**
+     * constructor<br>
+     * calls: waveReader, streamingEndPt<br>
+     * called by: volume
+     * @param path of the input wave file
+     * @param sampleRate samples per second of the returned utterances
+     * @param maxSeconds maximum length of an utterance, longer ones are cut
+     * @throws Exception if the file cannot be opened
+     */
+    public waveSegmenter(String path, float sampleRate, double maxSeconds) throws Exception{
+        int maxFrames = Math.max(1, (int)(maxSeconds * sampleRate / streamingEndPt.FRAME_SIZE));
+        detector.setMaxFrames(maxFrames);
+        // the end of an utterance is known at most 2 frames after its last frame, and the context is kept on both sides
+        history = new short[(maxFrames + 2 + 2 * CONTEXT_FRAMES) * streamingEndPt.FRAME_SIZE];
+        reader = new waveReader(path, sampleRate);
+    }
+    /**
+     * reads the file until the next utterance or the end of the file<br>
+     * calls: waveReader, streamingEndPt<br>
+     * called by: volume
+     * @return true if there is another utterance
+     */
+    public boolean hasNext(){
+        try {
+            while (next == null){
+                // the context after an utterance was read, or the file ended before all of it
+                if (pendingStart >= 0 && (finished || position >= pendingEnd + CONTEXT)){
+                    next = cut(pendingStart, pendingEnd);
+                    pendingStart = -1;
+                    break;
+                }
+                if (finished){
+                    break;
+                }
+
+                if (chunkPos == chunkLength){
+                    chunkLength = reader.read(chunk, 0, chunk.length);
+                    chunkPos = 0;
+                    if (chunkLength == -1){
+                        endOfFile();
+                        continue;
+                    }
+                }
+
+                // one frame at a time, so at most one utterance ends per step
+                int count = Math.min(chunkLength - chunkPos, frame.length - filled);
+                for (int c = 0; c < count; c++){
+                    short sample = chunk[chunkPos + c];
+                    frame[filled + c] = sample;
+                    history[(int)(position % history.length)] = sample;
+                    position++;
+                }
+                chunkPos += count;
+                filled += count;
+
+                if (filled == frame.length){
+                    filled = 0;
+                    if ((detector.addFrame(frame, 0) & streamingEndPt.SPEECH_END) != 0){
+                        found(detector.getStart(), detector.getEnd());
+                    }
+                }
+            }
+        }
+        catch (Exception e){
+            e.printStackTrace();
+            endOfFile();
+        }
+        return next != null;
+    }
+    /**
+     * returns the next utterance<br>
+     * calls: none<br>
+     * called by: volume
+     * @return a segment
+     */
+    public segment next(){
+        return nextSegment();
+    }
+    /**
+     * returns the next utterance<br>
+     * calls: none<br>
+     * called by: volume
+     * @return the next utterance in the recording
+     */
+    public segment nextSegment(){
+        if (!hasNext()){
+            throw new NoSuchElementException();
+        }
+        segment result = next;
+        next = null;
+        return result;
+    }
+    /**
+     * not supported<br>
+     * calls: none<br>
+     * called by: none
+     */
+    public void remove(){
+        throw new UnsupportedOperationException();
+    }
+    /**
+     * closes the file, the iteration ends<br>
+     * calls: none<br>
+     * called by: volume
+     */
+    public void close(){
+        finished = true;
+        next = null;
+        pendingStart = -1;
+        closeReader();
+    }
+    /**
+     * ends the detection, an utterance still going on ends at the last frame<br>
+     * calls: streamingEndPt, closeReader<br>
+     * called by: hasNext
+     */
+    private void endOfFile(){
+        if (finished){
+            return;
+        }
+        finished = true;
+        if ((detector.finish() & streamingEndPt.SPEECH_END) != 0){
+            found(detector.getStart(), detector.getEnd());
+        }
+        closeReader();
+    }
+    /**
+     * keeps an utterance until the context after it is read, an utterance still waiting is returned with the
+     * context read so far<br>
+     * calls: none<br>
+     * called by: hasNext, endOfFile
+     * @param start position of the first sample
+     * @param end position after the last sample
+     */
+    private void found(long start, long end){
+        if (pendingStart >= 0){
+            next = cut(pendingStart, pendingEnd);
+        }
+        pendingStart = start;
+        pendingEnd = end;
+    }
+    /**
+     * closes the file<br>
+     * calls: waveReader<br>
+     * called by: close, endOfFile
+     */
+    private void closeReader(){
+        try {
+            reader.close();
+        }
+        catch (Exception e){
+            e.printStackTrace();
+        }
+    }
+    /**
+     * copies an utterance and the context around it out of the history<br>
+     * calls: none<br>
+     * called by: hasNext, found
+     * @param start position of the first sample
+     * @param end position after the last sample
+     * @return the utterance
+     */
+    private segment cut(long start, long end){
+        long from = Math.max(Math.max(0, start - CONTEXT), position - history.length);
+        long to = Math.min(position, end + CONTEXT);
+        short samples[] = new short[(int)(to - from)];
+        for (int c = 0; c < samples.length; c++){
+            samples[c] = history[(int)((from + c) % history.length)];
+        }
+        return new segment(from, samples, (int)(start - from), (int)(end - start));
+    }
+}
\ No newline at end of file